@@ -0,0 +1,127 @@
+package com.bolsadeideas.springboot.backend.apirest.carga;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Cliente HTTP mínimo sobre HttpURLConnection. Siempre se lee el cuerpo completo (también
+ * el de los errores) para que la conexión vuelva al pool de keep-alive del JDK.
+ */
+public class ClienteHttp {
+
+	private final String base;
+
+	public ClienteHttp(String base) {
+		this.base = base;
+	}
+
+	public Respuesta get(String ruta, String token) throws IOException {
+		HttpURLConnection conexion = abrir(ruta, "GET");
+		if (token != null) {
+			conexion.setRequestProperty("Authorization", "Bearer " + token);
+		}
+		return leer(conexion);
+	}
+
+	public Respuesta postFormulario(String ruta, String usuario, String password, Map<String, String> campos) throws IOException {
+		StringBuilder cuerpo = new StringBuilder();
+		for (Map.Entry<String, String> campo : campos.entrySet()) {
+			if (cuerpo.length() > 0) {
+				cuerpo.append('&');
+			}
+			cuerpo.append(URLEncoder.encode(campo.getKey(), "UTF-8")).append('=')
+					.append(URLEncoder.encode(campo.getValue(), "UTF-8"));
+		}
+		HttpURLConnection conexion = abrir(ruta, "POST");
+		String credenciales = Base64.getEncoder().encodeToString((usuario + ":" + password).getBytes(StandardCharsets.UTF_8));
+		conexion.setRequestProperty("Authorization", "Basic " + credenciales);
+		conexion.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+		return escribir(conexion, cuerpo.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	public Respuesta postArchivo(String ruta, String token, String campo, String nombre, byte[] contenido,
+			Map<String, String> campos) throws IOException {
+		String limite = "----carga" + System.nanoTime();
+		ByteArrayOutputStream cuerpo = new ByteArrayOutputStream();
+		for (Map.Entry<String, String> otro : campos.entrySet()) {
+			cuerpo.write(("--" + limite + "\r\nContent-Disposition: form-data; name=\"" + otro.getKey() + "\"\r\n\r\n"
+					+ otro.getValue() + "\r\n").getBytes(StandardCharsets.UTF_8));
+		}
+		cuerpo.write(("--" + limite + "\r\nContent-Disposition: form-data; name=\"" + campo + "\"; filename=\"" + nombre
+				+ "\"\r\nContent-Type: application/octet-stream\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+		cuerpo.write(contenido);
+		cuerpo.write(("\r\n--" + limite + "--\r\n").getBytes(StandardCharsets.UTF_8));
+
+		HttpURLConnection conexion = abrir(ruta, "POST");
+		conexion.setRequestProperty("Authorization", "Bearer " + token);
+		conexion.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + limite);
+		return escribir(conexion, cuerpo.toByteArray());
+	}
+
+	private HttpURLConnection abrir(String ruta, String metodo) throws IOException {
+		HttpURLConnection conexion = (HttpURLConnection) new URL(base + ruta).openConnection();
+		conexion.setRequestMethod(metodo);
+		conexion.setConnectTimeout(5_000);
+		conexion.setReadTimeout(30_000);
+		return conexion;
+	}
+
+	private Respuesta escribir(HttpURLConnection conexion, byte[] cuerpo) throws IOException {
+		conexion.setDoOutput(true);
+		conexion.setFixedLengthStreamingMode(cuerpo.length);
+		try (OutputStream salida = conexion.getOutputStream()) {
+			salida.write(cuerpo);
+		}
+		return leer(conexion);
+	}
+
+	private Respuesta leer(HttpURLConnection conexion) throws IOException {
+		int estado = conexion.getResponseCode();
+		InputStream entrada = estado < 400 ? conexion.getInputStream() : conexion.getErrorStream();
+		ByteArrayOutputStream cuerpo = new ByteArrayOutputStream();
+		if (entrada != null) {
+			try (InputStream in = entrada) {
+				byte[] buffer = new byte[8192];
+				int leidos;
+				while ((leidos = in.read(buffer)) != -1) {
+					cuerpo.write(buffer, 0, leidos);
+				}
+			}
+		}
+		return new Respuesta(estado, cuerpo.toByteArray());
+	}
+
+	public static class Respuesta {
+
+		private final int estado;
+
+		private final byte[] cuerpo;
+
+		public Respuesta(int estado, byte[] cuerpo) {
+			this.estado = estado;
+			this.cuerpo = cuerpo;
+		}
+
+		public int getEstado() {
+			return estado;
+		}
+
+		public byte[] getCuerpo() {
+			return cuerpo;
+		}
+
+		public boolean isCorrecta() {
+			return estado >= 200 && estado < 400;
+		}
+
+	}
+
+}
@@ -0,0 +1,122 @@
+package com.bolsadeideas.springboot.backend.apirest.carga;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reparte peticiones entre las operaciones según su peso, en uno de dos modos:
+ * <ul>
+ * <li>cerrado: un número fijo de usuarios que lanzan la siguiente petición al recibir la
+ * respuesta (más una pausa opcional). Mide la latencia que ve cada usuario.</li>
+ * <li>abierto: las peticiones llegan a una tasa fija, respondan o no las anteriores. La
+ * latencia se mide desde el instante en que tocaba enviar la petición, así que incluye la
+ * espera cuando el servidor (o el pool de hilos) no da abasto.</li>
+ * </ul>
+ * Lo que ocurre durante el calentamiento no se registra.
+ */
+public class GeneradorCarga {
+
+	private final List<Operacion> operaciones;
+
+	private final int[] pesosAcumulados;
+
+	private final Informe informe;
+
+	public GeneradorCarga(List<Operacion> operaciones, Informe informe) {
+		this.operaciones = new ArrayList<>();
+		List<Integer> acumulados = new ArrayList<>();
+		int suma = 0;
+		for (Operacion operacion : operaciones) {
+			if (operacion.getPeso() > 0) {
+				suma += operacion.getPeso();
+				this.operaciones.add(operacion);
+				acumulados.add(suma);
+			}
+		}
+		if (suma == 0) {
+			throw new IllegalArgumentException("Ninguna operación tiene peso mayor que 0");
+		}
+		this.pesosAcumulados = acumulados.stream().mapToInt(Integer::intValue).toArray();
+		this.informe = informe;
+	}
+
+	public void cerrado(int usuarios, long pausaMs, long calentamientoSegundos, long duracionSegundos) throws InterruptedException {
+		long finCalentamiento = System.nanoTime() + TimeUnit.SECONDS.toNanos(calentamientoSegundos);
+		long fin = finCalentamiento + TimeUnit.SECONDS.toNanos(duracionSegundos);
+
+		List<Thread> hilos = new ArrayList<>();
+		for (int i = 0; i < usuarios; i++) {
+			Thread hilo = new Thread(() -> {
+				while (System.nanoTime() < fin) {
+					Operacion operacion = elegir();
+					long inicio = System.nanoTime();
+					boolean correcta = ejecutar(operacion);
+					if (inicio >= finCalentamiento) {
+						informe.registrar(operacion.getNombre(), System.nanoTime() - inicio, correcta);
+					}
+					if (pausaMs > 0) {
+						LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(pausaMs));
+					}
+				}
+			}, "carga-usuario-" + i);
+			hilos.add(hilo);
+			hilo.start();
+		}
+		for (Thread hilo : hilos) {
+			hilo.join();
+		}
+	}
+
+	public void abierto(double tasa, int hilos, long calentamientoSegundos, long duracionSegundos) throws InterruptedException {
+		ExecutorService pool = Executors.newFixedThreadPool(hilos);
+		long inicio = System.nanoTime();
+		long finCalentamiento = inicio + TimeUnit.SECONDS.toNanos(calentamientoSegundos);
+		long fin = finCalentamiento + TimeUnit.SECONDS.toNanos(duracionSegundos);
+		double intervalo = TimeUnit.SECONDS.toNanos(1) / tasa;
+
+		for (long n = 0;; n++) {
+			long programada = inicio + (long) (n * intervalo);
+			if (programada >= fin) {
+				break;
+			}
+			long espera = programada - System.nanoTime();
+			if (espera > 0) {
+				LockSupport.parkNanos(espera);
+			}
+			Operacion operacion = elegir();
+			pool.execute(() -> {
+				boolean correcta = ejecutar(operacion);
+				if (programada >= finCalentamiento) {
+					informe.registrar(operacion.getNombre(), System.nanoTime() - programada, correcta);
+				}
+			});
+		}
+		pool.shutdown();
+		pool.awaitTermination(1, TimeUnit.MINUTES);
+	}
+
+	private Operacion elegir() {
+		int valor = ThreadLocalRandom.current().nextInt(pesosAcumulados[pesosAcumulados.length - 1]);
+		for (int i = 0; i < pesosAcumulados.length; i++) {
+			if (valor < pesosAcumulados[i]) {
+				return operaciones.get(i);
+			}
+		}
+		return operaciones.get(operaciones.size() - 1);
+	}
+
+	private static boolean ejecutar(Operacion operacion) {
+		try {
+			return operacion.ejecutar().isCorrecta();
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,80 @@
+package com.bolsadeideas.springboot.backend.apirest.carga;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latencias por operación en histogramas HDR (microsegundos, tres cifras significativas),
+ * más peticiones y errores. Las operaciones se registran antes de empezar, así que el mapa
+ * solo se lee durante la prueba.
+ */
+public class Informe {
+
+	private final Map<String, Estadisticas> operaciones = new LinkedHashMap<>();
+
+	public Informe(Collection<String> nombres) {
+		for (String nombre : nombres) {
+			operaciones.put(nombre, new Estadisticas());
+		}
+	}
+
+	public void registrar(String operacion, long latenciaNanos, boolean correcta) {
+		Estadisticas estadisticas = operaciones.get(operacion);
+		estadisticas.latencias.recordValue(Math.max(1, latenciaNanos / 1_000));
+		if (!correcta) {
+			estadisticas.errores.incrementAndGet();
+		}
+	}
+
+	public String formatear(String descripcion, double segundos) {
+		StringWriter texto = new StringWriter();
+		PrintWriter salida = new PrintWriter(texto);
+		salida.println(descripcion);
+		salida.printf(Locale.ROOT, "%-16s %10s %8s %10s %10s %10s %10s %10s%n", "operacion", "peticiones", "errores",
+				"peticion/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+		long total = 0;
+		for (Map.Entry<String, Estadisticas> operacion : operaciones.entrySet()) {
+			Histogram latencias = operacion.getValue().latencias;
+			long peticiones = latencias.getTotalCount();
+			total += peticiones;
+			salida.printf(Locale.ROOT, "%-16s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n", operacion.getKey(), peticiones,
+					operacion.getValue().errores.get(), peticiones / segundos, milis(latencias, 50), milis(latencias, 99),
+					milis(latencias, 99.9), latencias.getMaxValue() / 1_000.0);
+		}
+		salida.printf(Locale.ROOT, "%-16s %10d %8s %10.1f%n", "total", total, "", total / segundos);
+		salida.flush();
+		return texto.toString();
+	}
+
+	public void escribir(Path archivo, String contenido) throws IOException {
+		if (archivo.getParent() != null) {
+			Files.createDirectories(archivo.getParent());
+		}
+		Files.write(archivo, contenido.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static double milis(Histogram latencias, double percentil) {
+		return latencias.getTotalCount() == 0 ? 0 : latencias.getValueAtPercentile(percentil) / 1_000.0;
+	}
+
+	private static class Estadisticas {
+
+		private final Histogram latencias = new ConcurrentHistogram(3);
+
+		private final AtomicLong errores = new AtomicLong();
+
+	}
+
+}
@@ -0,0 +1,38 @@
+package com.bolsadeideas.springboot.backend.apirest.carga;
+
+import java.io.IOException;
+
+public class Operacion {
+
+	private final String nombre;
+
+	private final int peso;
+
+	private final Peticion peticion;
+
+	public Operacion(String nombre, int peso, Peticion peticion) {
+		this.nombre = nombre;
+		this.peso = peso;
+		this.peticion = peticion;
+	}
+
+	public String getNombre() {
+		return nombre;
+	}
+
+	public int getPeso() {
+		return peso;
+	}
+
+	public ClienteHttp.Respuesta ejecutar() throws IOException {
+		return peticion.enviar();
+	}
+
+	@FunctionalInterface
+	public interface Peticion {
+
+		ClienteHttp.Respuesta enviar() throws IOException;
+
+	}
+
+}
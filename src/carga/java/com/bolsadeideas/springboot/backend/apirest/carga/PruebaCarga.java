@@ -0,0 +1,206 @@
+package com.bolsadeideas.springboot.backend.apirest.carga;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.ResourcePropertySource;
+import org.springframework.util.StreamUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Prueba de carga HTTP autocontenida: lanza la aplicación en otra JVM con ServidorCarga
+ * (perfil carga: H2 en memoria sin import.sql, rellenada con GeneradorDatos), obtiene un
+ * token con el password grant de angularapp, sube una foto y lanza la carga contra el
+ * paginado de clientes, el detalle de factura, /oauth/token y la descarga de la imagen.
+ * El resultado (p50, p99, p999 y peticiones por segundo de cada operación) se escribe en
+ * carga.informe. El servidor no comparte CPU, heap ni GC con el generador de carga.
+ * <p>
+ * Se lanza en su propia JVM con el perfil carga de Maven; la configuración de
+ * application-carga.properties se cambia con variables de entorno, que también hereda el
+ * proceso del servidor:
+ * CARGA_MODO=abierto CARGA_TASA=500 DATOS_GENERADOR_CLIENTES=200000 mvn -P carga -DskipTests verify
+ */
+public class PruebaCarga {
+
+	private static final Logger log = LoggerFactory.getLogger(PruebaCarga.class);
+
+	public static void main(String[] args) throws Exception {
+		// Conexiones keep-alive que HttpURLConnection conserva por servidor
+		System.setProperty("http.maxConnections", System.getProperty("http.maxConnections", "256"));
+
+		// Las mismas propiedades que usa el servidor, con las variables de entorno por delante
+		StandardEnvironment env = new StandardEnvironment();
+		env.getPropertySources().addLast(new ResourcePropertySource("classpath:application-carga.properties"));
+		configurarLog(env);
+
+		Process servidor = arrancarServidor(env);
+		int estado = 0;
+		try {
+			JsonNode datos = esperarServidor(servidor, env.getProperty("carga.servidor.arranque-segundos", Long.class, 600L));
+			ejecutar(env, datos);
+		} catch (Exception e) {
+			log.error("La prueba de carga ha fallado", e);
+			estado = 1;
+		} finally {
+			servidor.destroy();
+			if (!servidor.waitFor(30, TimeUnit.SECONDS)) {
+				servidor.destroyForcibly();
+			}
+		}
+		System.exit(estado);
+	}
+
+	// Fuera de Spring Boot hay que aplicar a mano los logging.level de application-carga.properties
+	private static void configurarLog(Environment env) {
+		LoggingSystem logging = LoggingSystem.get(PruebaCarga.class.getClassLoader());
+		logging.setLogLevel(null, LogLevel.valueOf(env.getProperty("logging.level.root", "info").toUpperCase()));
+		logging.setLogLevel(PruebaCarga.class.getPackage().getName(), LogLevel.valueOf(
+				env.getProperty("logging.level." + PruebaCarga.class.getPackage().getName(), "info").toUpperCase()));
+	}
+
+	// El servidor usa el mismo classpath que este proceso, que incluye GeneradorDatos
+	private static Process arrancarServidor(Environment env) throws Exception {
+		List<String> comando = new ArrayList<>();
+		comando.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+		comando.addAll(Arrays.asList(env.getProperty("carga.servidor.opciones-jvm", "-Xmx2g").trim().split("\\s+")));
+		comando.add("-Dspring.profiles.active=carga");
+		comando.add("-classpath");
+		comando.add(System.getProperty("java.class.path"));
+		comando.add(ServidorCarga.class.getName());
+		log.info("Arrancando el servidor: " + comando.subList(0, comando.size() - 3));
+		return new ProcessBuilder(comando).redirectErrorStream(true).start();
+	}
+
+	// Reenvía la salida del servidor y devuelve los datos de la línea LISTO de ServidorCarga
+	private static JsonNode esperarServidor(Process servidor, long segundos) throws Exception {
+		CompletableFuture<JsonNode> listo = new CompletableFuture<>();
+		ObjectMapper json = new ObjectMapper();
+		Thread lector = new Thread(() -> {
+			try (BufferedReader salida = new BufferedReader(
+					new InputStreamReader(servidor.getInputStream(), StandardCharsets.UTF_8))) {
+				String linea;
+				while ((linea = salida.readLine()) != null) {
+					if (linea.startsWith(ServidorCarga.LISTO)) {
+						listo.complete(json.readTree(linea.substring(ServidorCarga.LISTO.length())));
+					} else {
+						System.out.println("[servidor] " + linea);
+					}
+				}
+				listo.completeExceptionally(new IllegalStateException(
+						"El servidor ha terminado antes de estar listo"));
+			} catch (Exception e) {
+				listo.completeExceptionally(e);
+			}
+		}, "salida-servidor");
+		lector.setDaemon(true);
+		lector.start();
+		try {
+			return listo.get(segundos, TimeUnit.SECONDS);
+		} catch (TimeoutException e) {
+			throw new IllegalStateException("El servidor no ha arrancado en " + segundos + " s", e);
+		}
+	}
+
+	private static void ejecutar(Environment env, JsonNode datos) throws Exception {
+		ObjectMapper json = new ObjectMapper();
+		ClienteHttp http = new ClienteHttp("http://localhost:" + datos.get("puerto").asInt());
+
+		String cliente = env.getProperty("carga.oauth.cliente", "angularapp");
+		String secreto = env.getProperty("carga.oauth.secreto", "12345");
+		Map<String, String> passwordGrant = new LinkedHashMap<>();
+		passwordGrant.put("grant_type", "password");
+		passwordGrant.put("username", env.getProperty("carga.oauth.usuario", "admin"));
+		passwordGrant.put("password", env.getProperty("carga.oauth.password", "12345"));
+
+		ClienteHttp.Respuesta respuesta = http.postFormulario("/oauth/token", cliente, secreto, passwordGrant);
+		if (!respuesta.isCorrecta()) {
+			throw new IllegalStateException("No se ha podido obtener el token: HTTP " + respuesta.getEstado());
+		}
+		JsonNode token = json.readTree(respuesta.getCuerpo());
+		String accessToken = token.get("access_token").asText();
+		Map<String, String> refreshGrant = new LinkedHashMap<>();
+		refreshGrant.put("grant_type", "refresh_token");
+		refreshGrant.put("refresh_token", token.get("refresh_token").asText());
+
+		// Una foto real para medir la descarga de imágenes
+		long primerCliente = datos.get("primerCliente").asLong();
+		byte[] imagen = StreamUtils.copyToByteArray(new ClassPathResource("static/images/no-usuario.png").getInputStream());
+		respuesta = http.postArchivo("/api/clientes/uploads", accessToken, "archivo", "carga.png", imagen,
+				Collections.singletonMap("id", String.valueOf(primerCliente)));
+		if (!respuesta.isCorrecta()) {
+			throw new IllegalStateException("No se ha podido subir la foto: HTTP " + respuesta.getEstado());
+		}
+		String foto = json.readTree(respuesta.getCuerpo()).path("cliente").path("foto").asText();
+
+		long paginas = Math.max(1, datos.get("clientes").asLong() / 4);
+		long primeraFactura = datos.get("primeraFactura").asLong();
+		long facturas = datos.get("ultimaFactura").asLong() - primeraFactura + 1;
+
+		List<Operacion> operaciones = new ArrayList<>();
+		operaciones.add(new Operacion("clientes-page", peso(env, "clientes-page", 50),
+				() -> http.get("/api/clientes/page/" + ThreadLocalRandom.current().nextLong(paginas), null)));
+		operaciones.add(new Operacion("factura", peso(env, "factura", 30),
+				() -> http.get("/api/facturas/" + (primeraFactura + ThreadLocalRandom.current().nextLong(facturas)), accessToken)));
+		operaciones.add(new Operacion("imagen", peso(env, "imagen", 15),
+				() -> http.get("/api/uploads/img/" + foto, null)));
+		operaciones.add(new Operacion("token", peso(env, "token", 3),
+				() -> http.postFormulario("/oauth/token", cliente, secreto, passwordGrant)));
+		operaciones.add(new Operacion("refresco", peso(env, "refresco", 2),
+				() -> http.postFormulario("/oauth/token", cliente, secreto, refreshGrant)));
+
+		Informe informe = new Informe(operaciones.stream().map(Operacion::getNombre).collect(Collectors.toList()));
+		GeneradorCarga generador = new GeneradorCarga(operaciones, informe);
+
+		String modo = env.getProperty("carga.modo", "cerrado");
+		long calentamiento = env.getProperty("carga.calentamiento-segundos", Long.class, 15L);
+		long duracion = env.getProperty("carga.duracion-segundos", Long.class, 60L);
+		String descripcion;
+		if ("abierto".equals(modo)) {
+			double tasa = env.getProperty("carga.tasa", Double.class, 200.0);
+			int hilos = env.getProperty("carga.hilos", Integer.class, 64);
+			descripcion = "modo abierto, " + tasa + " peticiones/s, " + hilos + " hilos";
+			log.info("Carga en " + descripcion + " durante " + calentamiento + " + " + duracion + " s");
+			generador.abierto(tasa, hilos, calentamiento, duracion);
+		} else {
+			int usuarios = env.getProperty("carga.usuarios", Integer.class, 16);
+			long pausa = env.getProperty("carga.pausa-ms", Long.class, 0L);
+			descripcion = "modo cerrado, " + usuarios + " usuarios, pausa de " + pausa + " ms";
+			log.info("Carga en " + descripcion + " durante " + calentamiento + " + " + duracion + " s");
+			generador.cerrado(usuarios, pausa, calentamiento, duracion);
+		}
+
+		String resultado = informe.formatear("Prueba de carga " + LocalDateTime.now() + ": " + descripcion + ", "
+				+ duracion + " s medidos tras " + calentamiento + " s de calentamiento", duracion);
+		String archivo = env.getProperty("carga.informe", "target/carga-informe.txt");
+		informe.escribir(Paths.get(archivo), resultado);
+		log.info("Informe escrito en " + archivo + "\n" + resultado);
+	}
+
+	private static int peso(Environment env, String operacion, int porDefecto) {
+		return env.getProperty("carga.peso." + operacion, Integer.class, porDefecto);
+	}
+
+}
@@ -0,0 +1,47 @@
+package com.bolsadeideas.springboot.backend.apirest.carga;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.bolsadeideas.springboot.backend.apirest.SpringBootBackendApirestApplication;
+import com.bolsadeideas.springboot.backend.apirest.models.services.GeneradorDatos;
+
+/**
+ * Servidor de la prueba de carga, en su propia JVM: arranca la aplicación con el perfil
+ * carga, la rellena con GeneradorDatos y escribe en la salida estándar una línea con el
+ * prefijo {@link #LISTO} y, en JSON, el puerto y los rangos de ids generados. PruebaCarga
+ * lanza este proceso, espera esa línea y a partir de ahí solo habla con él por HTTP.
+ */
+public class ServidorCarga {
+
+	static final String LISTO = "SERVIDOR-CARGA-LISTO ";
+
+	public static void main(String[] args) throws Exception {
+		// Sin el reinicio de devtools, que cargaría la aplicación en otro classloader
+		System.setProperty("spring.devtools.restart.enabled", "false");
+
+		ConfigurableApplicationContext contexto = new SpringApplicationBuilder(SpringBootBackendApirestApplication.class)
+				.profiles("carga")
+				.run(args);
+		contexto.getBean(GeneradorDatos.class).generar();
+
+		JdbcTemplate jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+		Map<String, Object> datos = new LinkedHashMap<>();
+		datos.put("puerto", ((WebServerApplicationContext) contexto).getWebServer().getPort());
+		datos.put("primerCliente", jdbcTemplate.queryForObject("select min(id) from clientes", Long.class));
+		datos.put("clientes", jdbcTemplate.queryForObject("select count(*) from clientes", Long.class));
+		datos.put("primeraFactura", jdbcTemplate.queryForObject("select min(id) from facturas", Long.class));
+		datos.put("ultimaFactura", jdbcTemplate.queryForObject("select max(id) from facturas", Long.class));
+		System.out.println(LISTO + contexto.getBean(ObjectMapper.class).writeValueAsString(datos));
+		System.out.flush();
+		// El proceso sigue vivo con los hilos de Tomcat hasta que PruebaCarga lo termina
+	}
+
+}
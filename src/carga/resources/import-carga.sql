@@ -0,0 +1 @@
+/* Sin datos fijos: los crea GeneradorDatos al arrancar la prueba de carga */
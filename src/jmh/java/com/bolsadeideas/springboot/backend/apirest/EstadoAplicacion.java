@@ -0,0 +1,47 @@
+package com.bolsadeideas.springboot.backend.apirest;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.bolsadeideas.springboot.backend.apirest.models.services.GeneradorDatos;
+
+/**
+ * Aplicación arrancada sin servidor web contra la H2 en memoria de los tests y cargada
+ * con el generador de datos (perfil benchmark: 100.000 clientes y 1.000.000 de items por
+ * defecto). Se arranca una vez por fork, antes del calentamiento.
+ */
+@State(Scope.Benchmark)
+public class EstadoAplicacion {
+
+	private ConfigurableApplicationContext contexto;
+
+	@Setup(Level.Trial)
+	public void arrancar() {
+		contexto = new SpringApplicationBuilder(SpringBootBackendApirestApplication.class)
+				.profiles("benchmark")
+				.web(WebApplicationType.NONE)
+				.run();
+		contexto.getBean(GeneradorDatos.class).generar();
+	}
+
+	@TearDown(Level.Trial)
+	public void parar() {
+		contexto.close();
+	}
+
+	public <T> T getBean(Class<T> tipo) {
+		return contexto.getBean(tipo);
+	}
+
+	public long maximoId(String tabla) {
+		return contexto.getBean(JdbcTemplate.class).queryForObject("select max(id) from " + tabla, Long.class);
+	}
+
+}
@@ -0,0 +1,109 @@
+package com.bolsadeideas.springboot.backend.apirest.auth;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.bolsadeideas.springboot.backend.apirest.SpringBootBackendApirestApplication;
+
+/**
+ * Coste de la cadena de Spring Security por petición: se pasa una petición simulada por
+ * springSecurityFilterChain y se termina en una cadena vacía, sin llegar a los
+ * controladores. Una petición lleva el bearer token de admin y otra es anónima sobre una
+ * ruta pública.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = { "-Xms1g", "-Xmx1g" })
+public class CadenaSeguridadBenchmark {
+
+	private static final FilterChain FIN = (request, response) -> {
+	};
+
+	private ConfigurableApplicationContext contexto;
+
+	private Filter cadena;
+
+	private String autorizacion;
+
+	@Setup(Level.Trial)
+	public void arrancar() throws Exception {
+		contexto = new SpringApplicationBuilder(SpringBootBackendApirestApplication.class)
+				.profiles("benchmark")
+				.properties("server.port=0")
+				.run();
+		cadena = contexto.getBean("springSecurityFilterChain", Filter.class);
+
+		MockMvc mvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) contexto).addFilters(cadena).build();
+		String cliente = Base64.getEncoder().encodeToString("angularapp:12345".getBytes(StandardCharsets.UTF_8));
+		String respuesta = mvc.perform(MockMvcRequestBuilders.post("/oauth/token")
+				.header("Authorization", "Basic " + cliente)
+				.param("grant_type", "password").param("username", "admin").param("password", "12345"))
+				.andReturn().getResponse().getContentAsString();
+		autorizacion = "Bearer " + new ObjectMapper().readTree(respuesta).get("access_token").asText();
+
+		// Las dos peticiones deben atravesar la cadena, no quedarse en un 401
+		if (conToken().getStatus() != 200 || anonima().getStatus() != 200) {
+			throw new IllegalStateException("La cadena de seguridad rechaza las peticiones del benchmark");
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void parar() {
+		contexto.close();
+	}
+
+	@Benchmark
+	public MockHttpServletResponse conToken() throws Exception {
+		MockHttpServletRequest request = peticion("/api/usuarios/me");
+		request.addHeader("Authorization", autorizacion);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		cadena.doFilter(request, response, FIN);
+		return response;
+	}
+
+	@Benchmark
+	public MockHttpServletResponse anonima() throws Exception {
+		MockHttpServletRequest request = peticion("/api/clientes/page/0");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		cadena.doFilter(request, response, FIN);
+		return response;
+	}
+
+	// Los matchers de Spring Security usan el servletPath, que MockHttpServletRequest deja vacío
+	private static MockHttpServletRequest peticion(String ruta) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", ruta);
+		request.setServletPath(ruta);
+		return request;
+	}
+
+}
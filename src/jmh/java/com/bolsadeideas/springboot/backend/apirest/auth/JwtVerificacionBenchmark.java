@@ -0,0 +1,69 @@
+package com.bolsadeideas.springboot.backend.apirest.auth;
+
+import java.security.KeyPair;
+import java.security.interfaces.RSAPublicKey;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
+import org.springframework.security.oauth2.provider.token.store.KeyStoreKeyFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Lectura de un mismo bearer token a través de JwtTokenStore, que es lo que hacía el
+ * resource server de OAuth2 en cada petición, frente a VerificadorJwt.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificacionBenchmark {
+
+	private JwtTokenStore original;
+
+	private VerificadorJwt verificador;
+
+	private String token;
+
+	@Setup(Level.Trial)
+	public void preparar() throws Exception {
+		KeyPair claves = new KeyStoreKeyFactory(new ClassPathResource("jwt.jks"), "jwtsecreto".toCharArray())
+				.getKeyPair("jwt");
+		token = VerificadorJwtTests.firmar(claves, System.currentTimeMillis() / 1000 + 3600);
+
+		JwtAccessTokenConverter converter = new JwtAccessTokenConverter();
+		converter.setKeyPair(claves);
+		converter.afterPropertiesSet();
+		original = new JwtTokenStore(converter);
+
+		verificador = new VerificadorJwt((RSAPublicKey) claves.getPublic(), new ObjectMapper(), 10_000);
+	}
+
+	@Benchmark
+	public OAuth2Authentication original() {
+		return original.readAuthentication(token);
+	}
+
+	@Benchmark
+	public Authentication verificadorJwt() {
+		return verificador.autenticar(token);
+	}
+
+}
@@ -0,0 +1,68 @@
+package com.bolsadeideas.springboot.backend.apirest.models.entity;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Coste de leer el total guardado frente a recalcularlo desde las líneas, que es lo que
+ * se hace al guardar una factura.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FacturaBenchmark {
+
+	@Param({ "5", "50" })
+	public int numeroItems;
+
+	private Factura factura;
+
+	@Setup(Level.Trial)
+	public void preparar() {
+		factura = new Factura();
+		for (int i = 0; i < numeroItems; i++) {
+			ItemFactura item = new ItemFactura();
+			item.setCantidad(1 + i % 5);
+			item.calcularImporte(1000.0 + i * 37.5);
+			factura.getItems().add(item);
+		}
+		factura.calcularTotal();
+	}
+
+	@Benchmark
+	public BigDecimal getTotal() {
+		return factura.getTotal();
+	}
+
+	@Benchmark
+	public BigDecimal calcularTotal() {
+		factura.calcularTotal();
+		return factura.getTotal();
+	}
+
+	@Benchmark
+	public BigDecimal calcularImportesYTotal() {
+		for (ItemFactura item : factura.getItems()) {
+			item.calcularImporte(1000.0);
+		}
+		factura.calcularTotal();
+		return factura.getTotal();
+	}
+
+}
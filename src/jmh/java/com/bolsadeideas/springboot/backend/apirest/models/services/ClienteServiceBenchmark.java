@@ -0,0 +1,90 @@
+package com.bolsadeideas.springboot.backend.apirest.models.services;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.bolsadeideas.springboot.backend.apirest.EstadoAplicacion;
+import com.bolsadeideas.springboot.backend.apirest.models.dto.ClienteDto;
+import com.bolsadeideas.springboot.backend.apirest.models.dto.ProductoDto;
+
+/**
+ * Caminos calientes de ClienteServiceImpl contra la base de datos generada. Los ids y
+ * las páginas se eligen al azar en cada invocación para no medir siempre la misma fila.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class ClienteServiceBenchmark {
+
+	private IClienteService clienteService;
+
+	private ObjectMapper objectMapper;
+
+	private int paginas;
+
+	private long facturas;
+
+	@Setup(Level.Trial)
+	public void preparar(EstadoAplicacion aplicacion) {
+		clienteService = aplicacion.getBean(IClienteService.class);
+		objectMapper = aplicacion.getBean(ObjectMapper.class);
+		paginas = (int) (clienteService.count() / 4);
+		facturas = aplicacion.maximoId("facturas");
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public List<ClienteDto> findAll() {
+		return clienteService.findAll();
+	}
+
+	// El mismo tamaño de página que /api/clientes/page/{page}
+	@Benchmark
+	public Page<ClienteDto> findAllPaginado() {
+		return clienteService.findAll(PageRequest.of(ThreadLocalRandom.current().nextInt(paginas), 4));
+	}
+
+	@Benchmark
+	public byte[] findFacturaByIdJson() throws JsonProcessingException {
+		long id = 1 + ThreadLocalRandom.current().nextLong(facturas);
+		return objectMapper.writeValueAsBytes(clienteService.findFacturaById(id));
+	}
+
+	@Benchmark
+	public List<ProductoDto> findProductoByNombre(Busqueda busqueda) {
+		return clienteService.findProductoByNombre(busqueda.term);
+	}
+
+	// Un término corto (recorrido sin trigramas), uno frecuente y uno de varias palabras
+	@State(Scope.Benchmark)
+	public static class Busqueda {
+
+		@Param({ "so", "sony", "camara digital" })
+		public String term;
+
+	}
+
+}
@@ -4,13 +4,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.bolsadeideas.springboot.backend.apirest.models.dao.RepositorioMedidoFactoryBean;
 
 @SpringBootApplication
+@EnableJpaRepositories(repositoryFactoryBeanClass = RepositorioMedidoFactoryBean.class)
 public class SpringBootBackendApirestApplication implements CommandLineRunner{
 
 	@Autowired
-	private BCryptPasswordEncoder passwordEncoder;
+	private PasswordEncoder passwordEncoder;
 	
 	public static void main(String[] args) {
 		SpringApplication.run(SpringBootBackendApirestApplication.class, args);
@@ -1,13 +1,16 @@
 package com.bolsadeideas.springboot.backend.apirest.auth;
 
+import java.security.KeyPair;
 import java.util.Arrays;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.config.annotation.configurers.ClientDetailsServiceConfigurer;
 import org.springframework.security.oauth2.config.annotation.web.configuration.AuthorizationServerConfigurerAdapter;
 import org.springframework.security.oauth2.config.annotation.web.configuration.EnableAuthorizationServer;
@@ -16,13 +19,16 @@ import org.springframework.security.oauth2.config.annotation.web.configurers.Aut
 import org.springframework.security.oauth2.provider.token.TokenEnhancerChain;
 import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
 import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
+import org.springframework.security.oauth2.provider.token.store.KeyStoreKeyFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 @Configuration
 @EnableAuthorizationServer
 public class AuthorizationServerConfig extends AuthorizationServerConfigurerAdapter{
 
 	@Autowired
-	private BCryptPasswordEncoder passwordEncoder;
+	private PasswordEncoder passwordEncoder;
 	
 	@Autowired
 	@Qualifier("authenticationManager")
@@ -30,21 +36,46 @@ public class AuthorizationServerConfig extends AuthorizationServerConfigurerAdap
 	
 	@Autowired
 	private InfoAdicionalToken infoAdicionalToken;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	@Value("${jwt.keystore.ubicacion:classpath:jwt.jks}")
+	private Resource keystore;
+	
+	@Value("${jwt.keystore.password}")
+	private String keystorePassword;
+	
+	@Value("${jwt.keystore.alias:jwt}")
+	private String keystoreAlias;
+	
+	@Value("${oauth.cliente.id:angularapp}")
+	private String clienteId;
+	
+	@Value("${oauth.cliente.secreto}")
+	private String clienteSecreto;
+	
+	@Value("${oauth.cliente.validez-token-segundos:3600}")
+	private int validezToken;
+	
+	@Value("${oauth.cliente.validez-refresh-segundos:3600}")
+	private int validezRefresh;
 
 	@Override
 	public void configure(AuthorizationServerSecurityConfigurer security) throws Exception {
 		security.tokenKeyAccess("permitAll()")
-		.checkTokenAccess("isAuthenticated()");
+		.checkTokenAccess("isAuthenticated()")
+		.addTokenEndpointAuthenticationFilter(new SaturacionLoginFilter(objectMapper));
 	}
 
 	@Override
 	public void configure(ClientDetailsServiceConfigurer clients) throws Exception {
-		clients.inMemory().withClient("angularapp")
-		.secret(passwordEncoder.encode("12345"))
+		clients.inMemory().withClient(clienteId)
+		.secret(passwordEncoder.encode(clienteSecreto))
 		.scopes("read", "write")
 		.authorizedGrantTypes("password", "refresh_token")
-		.accessTokenValiditySeconds(3600)
-		.refreshTokenValiditySeconds(3600);
+		.accessTokenValiditySeconds(validezToken)
+		.refreshTokenValiditySeconds(validezRefresh);
 	}
 
 	@Override
@@ -63,11 +94,18 @@ public class AuthorizationServerConfig extends AuthorizationServerConfigurerAdap
 		return new JwtTokenStore(accessTokenConverter());
 	}
 
+	// El par de claves RSA se carga una sola vez desde el keystore; la clave pública
+	// también la usa VerificadorJwt para los bearer token de la API
+	@Bean
+	public KeyPair jwtKeyPair() {
+		return new KeyStoreKeyFactory(keystore, keystorePassword.toCharArray()).getKeyPair(keystoreAlias);
+	}
+
+	// Firma los tokens que emite /oauth/token y lee los refresh token
 	@Bean
 	public JwtAccessTokenConverter accessTokenConverter() {
 		JwtAccessTokenConverter jwtAccessTokenConverter = new JwtAccessTokenConverter();
-		jwtAccessTokenConverter.setSigningKey(JwtConfig.RSA_PRIVADA);
-		jwtAccessTokenConverter.setVerifierKey(JwtConfig.RSA_PUBLICA);
+		jwtAccessTokenConverter.setKeyPair(jwtKeyPair());
 		return jwtAccessTokenConverter;
 	}
 	
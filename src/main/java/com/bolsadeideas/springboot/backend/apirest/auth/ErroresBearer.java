@@ -0,0 +1,59 @@
+package com.bolsadeideas.springboot.backend.apirest.auth;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.AuthenticationEntryPoint;
+import org.springframework.security.web.access.AccessDeniedHandler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Respuestas 401 y 403 de las rutas protegidas con el mismo formato que daba el resource
+ * server de OAuth2 ({"error", "error_description"} y la cabecera WWW-Authenticate), que es
+ * lo que espera la aplicación Angular para volver al login.
+ */
+public class ErroresBearer implements AuthenticationEntryPoint, AccessDeniedHandler {
+
+	private final ObjectMapper objectMapper;
+
+	public ErroresBearer(ObjectMapper objectMapper) {
+		this.objectMapper = objectMapper;
+	}
+
+	@Override
+	public void commence(HttpServletRequest request, HttpServletResponse response, AuthenticationException authException)
+			throws IOException {
+		// Un token presente pero rechazado es invalid_token; la falta de token, unauthorized
+		String error = authException instanceof BadCredentialsException ? "invalid_token" : "unauthorized";
+		String descripcion = authException instanceof BadCredentialsException ? authException.getMessage()
+				: "Se requiere autenticación para acceder a este recurso";
+		response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer realm=\"oauth2-resource\", error=\"" + error + "\"");
+		escribir(response, HttpServletResponse.SC_UNAUTHORIZED, error, descripcion);
+	}
+
+	@Override
+	public void handle(HttpServletRequest request, HttpServletResponse response, AccessDeniedException accessDeniedException)
+			throws IOException {
+		escribir(response, HttpServletResponse.SC_FORBIDDEN, "access_denied", "Acceso denegado");
+	}
+
+	private void escribir(HttpServletResponse response, int estado, String error, String descripcion) throws IOException {
+		Map<String, String> cuerpo = new LinkedHashMap<>();
+		cuerpo.put("error", error);
+		cuerpo.put("error_description", descripcion);
+		response.setStatus(estado);
+		response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+		objectMapper.writeValue(response.getOutputStream(), cuerpo);
+	}
+
+}
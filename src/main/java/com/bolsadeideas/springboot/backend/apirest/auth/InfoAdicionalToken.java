@@ -4,13 +4,14 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
 import org.springframework.security.oauth2.common.OAuth2AccessToken;
 import org.springframework.security.oauth2.provider.OAuth2Authentication;
 import org.springframework.security.oauth2.provider.token.TokenEnhancer;
 import org.springframework.stereotype.Component;
 
-import com.bolsadeideas.springboot.backend.apirest.models.entity.Usuario;
+import com.bolsadeideas.springboot.backend.apirest.models.dto.UsuarioDto;
 import com.bolsadeideas.springboot.backend.apirest.models.services.IUsuarioService;
 
 @Component
@@ -18,11 +19,20 @@ public class InfoAdicionalToken implements TokenEnhancer{
 	
 	@Autowired
 	private IUsuarioService usuarioService;
+	
+	// En modo compacto el token solo lleva el usuario y sus roles; los datos de perfil
+	// se obtienen con GET /api/usuarios/me
+	@Value("${jwt.token-compacto:false}")
+	private boolean tokenCompacto;
 
 	@Override
 	public OAuth2AccessToken enhance(OAuth2AccessToken accessToken, OAuth2Authentication authentication) {
 		
-		Usuario usuario = usuarioService.findByUsername(authentication.getName());
+		if (tokenCompacto) {
+			return accessToken;
+		}
+		
+		UsuarioDto usuario = usuarioService.findByUsername(authentication.getName());
 		Map<String, Object> info = new HashMap<>();
 		info.put("info_adicional", "Hola que tal!: ".concat(authentication.getName()));
 		
@@ -0,0 +1,76 @@
+package com.bolsadeideas.springboot.backend.apirest.auth;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.AuthenticationEntryPoint;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Autentica las peticiones con el bearer token de la cabecera Authorization, en lugar de
+ * la cadena del resource server de spring-security-oauth2. La autenticación la da
+ * VerificadorJwt y se deja en el SecurityContext solo durante la petición. Sin token se
+ * usa una autenticación anónima nueva en cada petición, como AnonymousAuthenticationFilter,
+ * porque una Authentication es mutable; con un token no válido se responde 401 sin
+ * continuar, aunque la ruta sea pública, como hacía el resource server.
+ */
+public class JwtBearerFilter extends OncePerRequestFilter {
+
+	private static final String BEARER = "Bearer ";
+
+	private static final String CLAVE_ANONIMA = "anonimo";
+
+	private static final List<GrantedAuthority> ROLES_ANONIMOS = Collections.unmodifiableList(
+			AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+
+	private final VerificadorJwt verificador;
+
+	private final AuthenticationEntryPoint puntoEntrada;
+
+	public JwtBearerFilter(VerificadorJwt verificador, AuthenticationEntryPoint puntoEntrada) {
+		this.verificador = verificador;
+		this.puntoEntrada = puntoEntrada;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+
+		Authentication autenticacion;
+		String cabecera = request.getHeader(HttpHeaders.AUTHORIZATION);
+		if (cabecera != null && cabecera.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+			try {
+				autenticacion = verificador.autenticar(cabecera.substring(BEARER.length()).trim());
+			} catch (AuthenticationException e) {
+				puntoEntrada.commence(request, response, e);
+				return;
+			}
+		} else {
+			autenticacion = new AnonymousAuthenticationToken(CLAVE_ANONIMA, "anonymousUser", ROLES_ANONIMOS);
+		}
+
+		SecurityContext contexto = SecurityContextHolder.createEmptyContext();
+		contexto.setAuthentication(autenticacion);
+		SecurityContextHolder.setContext(contexto);
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			SecurityContextHolder.clearContext();
+		}
+	}
+
+}
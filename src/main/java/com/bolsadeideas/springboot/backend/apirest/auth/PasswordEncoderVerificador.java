@@ -0,0 +1,126 @@
+package com.bolsadeideas.springboot.backend.apirest.auth;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * PasswordEncoder BCrypt con fuerza configurable que ejecuta el hash en un pool de
+ * hilos propio y acotado. Así los picos de login no ocupan todos los hilos de Tomcat
+ * con trabajo de CPU: cuando el pool y su cola están llenos se rechaza la petición
+ * con un 429. Las contraseñas guardadas con una fuerza distinta a la configurada se
+ * marcan para volver a codificarse en el siguiente login correcto.
+ */
+public class PasswordEncoderVerificador implements PasswordEncoder, DisposableBean {
+
+	private static final Pattern FUERZA_BCRYPT = Pattern.compile("\\A\\$2[ayb]?\\$(\\d\\d)\\$");
+
+	private final BCryptPasswordEncoder bcrypt;
+
+	private final int fuerza;
+
+	private final ThreadPoolExecutor executor;
+
+	private final Timer tiempoVerificacion;
+
+	private final Timer tiempoCodificacion;
+
+	private final Timer tiempoEspera;
+
+	private final Counter rechazadas;
+
+	public PasswordEncoderVerificador(int fuerza, int hilos, int cola, MeterRegistry registry) {
+		this.fuerza = fuerza;
+		this.bcrypt = new BCryptPasswordEncoder(fuerza);
+
+		AtomicInteger contador = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(cola),
+				r -> {
+					Thread hilo = new Thread(r, "password-hash-" + contador.incrementAndGet());
+					hilo.setDaemon(true);
+					return hilo;
+				}, new ThreadPoolExecutor.AbortPolicy());
+
+		this.tiempoVerificacion = Timer.builder("seguridad.password.verificacion")
+				.description("Tiempo de verificación de contraseñas BCrypt").publishPercentileHistogram()
+				.register(registry);
+		this.tiempoCodificacion = Timer.builder("seguridad.password.codificacion")
+				.description("Tiempo de codificación de contraseñas BCrypt").register(registry);
+		// El tiempo que ve quien hace login es la espera en la cola más el hash
+		this.tiempoEspera = Timer.builder("seguridad.password.espera")
+				.description("Tiempo de espera en la cola del pool de contraseñas").publishPercentileHistogram()
+				.register(registry);
+		this.rechazadas = Counter.builder("seguridad.password.rechazadas")
+				.description("Verificaciones rechazadas por saturación del pool").register(registry);
+		Gauge.builder("seguridad.password.cola", executor, e -> e.getQueue().size()).register(registry);
+	}
+
+	@Override
+	public String encode(CharSequence rawPassword) {
+		return ejecutar(() -> tiempoCodificacion.recordCallable(() -> bcrypt.encode(rawPassword)));
+	}
+
+	@Override
+	public boolean matches(CharSequence rawPassword, String encodedPassword) {
+		return ejecutar(() -> tiempoVerificacion.recordCallable(() -> bcrypt.matches(rawPassword, encodedPassword)));
+	}
+
+	@Override
+	public boolean upgradeEncoding(String encodedPassword) {
+		if (encodedPassword == null) {
+			return false;
+		}
+		Matcher matcher = FUERZA_BCRYPT.matcher(encodedPassword);
+		return matcher.find() && Integer.parseInt(matcher.group(1)) != fuerza;
+	}
+
+	@Override
+	public void destroy() {
+		executor.shutdown();
+	}
+
+	<T> T ejecutar(Callable<T> tarea) {
+		long encolada = System.nanoTime();
+		Future<T> resultado;
+		try {
+			resultado = executor.submit(() -> {
+				tiempoEspera.record(System.nanoTime() - encolada, TimeUnit.NANOSECONDS);
+				return tarea.call();
+			});
+		} catch (RejectedExecutionException e) {
+			rechazadas.increment();
+			throw new PasswordVerificacionSaturadaException();
+		}
+
+		try {
+			return resultado.get();
+		} catch (InterruptedException e) {
+			resultado.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrumpida la verificación de la contraseña", e);
+		} catch (ExecutionException e) {
+			Throwable causa = e.getCause();
+			if (causa instanceof RuntimeException) {
+				throw (RuntimeException) causa;
+			}
+			throw new IllegalStateException(causa);
+		}
+	}
+
+}
@@ -0,0 +1,27 @@
+package com.bolsadeideas.springboot.backend.apirest.auth;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.oauth2.common.exceptions.OAuth2Exception;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Se lanza cuando el pool de verificación de contraseñas está lleno. El endpoint
+// /oauth/token la traduce a un 429 a partir de getHttpErrorCode()
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class PasswordVerificacionSaturadaException extends OAuth2Exception {
+
+	public PasswordVerificacionSaturadaException() {
+		super("Demasiados intentos de login simultáneos, inténtelo de nuevo en unos segundos");
+	}
+
+	@Override
+	public String getOAuth2ErrorCode() {
+		return "too_many_requests";
+	}
+
+	@Override
+	public int getHttpErrorCode() {
+		return HttpStatus.TOO_MANY_REQUESTS.value();
+	}
+
+	private static final long serialVersionUID = 1L;
+}
@@ -0,0 +1,34 @@
+package com.bolsadeideas.springboot.backend.apirest.auth;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+/**
+ * Reconoce las peticiones que llegan por el puerto de gestión (management.server.port), en
+ * el que Spring Boot sirve los endpoints de actuator en un contexto hijo con la misma cadena
+ * de seguridad. El puerto se toma del servidor ya arrancado, así que también vale con el
+ * puerto 0; sin puerto de gestión propio no reconoce ninguna petición.
+ */
+public class PuertoGestionMatcher implements RequestMatcher, ApplicationListener<WebServerInitializedEvent> {
+
+	// Espacio de nombres con el que Spring Boot arranca el servidor de gestión
+	private static final String ESPACIO_GESTION = "management";
+
+	private volatile int puerto = -1;
+
+	@Override
+	public void onApplicationEvent(WebServerInitializedEvent event) {
+		if (ESPACIO_GESTION.equals(event.getApplicationContext().getServerNamespace())) {
+			puerto = event.getWebServer().getPort();
+		}
+	}
+
+	@Override
+	public boolean matches(HttpServletRequest request) {
+		return request.getLocalPort() == puerto;
+	}
+
+}
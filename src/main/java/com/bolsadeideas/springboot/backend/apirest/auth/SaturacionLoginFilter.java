@@ -0,0 +1,45 @@
+package com.bolsadeideas.springboot.backend.apirest.auth;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Responde 429 en /oauth/token cuando el pool de contraseñas está lleno al comprobar el
+ * secreto del cliente. Esa comprobación la hace el filtro Basic, antes de llegar al
+ * endpoint, y sin este filtro la excepción acabaría en un 500.
+ */
+public class SaturacionLoginFilter extends OncePerRequestFilter {
+
+	private final ObjectMapper objectMapper;
+
+	public SaturacionLoginFilter(ObjectMapper objectMapper) {
+		this.objectMapper = objectMapper;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		try {
+			filterChain.doFilter(request, response);
+		} catch (PasswordVerificacionSaturadaException e) {
+			Map<String, String> cuerpo = new LinkedHashMap<>();
+			cuerpo.put("error", e.getOAuth2ErrorCode());
+			cuerpo.put("error_description", e.getMessage());
+			response.setStatus(e.getHttpErrorCode());
+			response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+			objectMapper.writeValue(response.getOutputStream(), cuerpo);
+		}
+	}
+
+}
@@ -1,6 +1,7 @@
 package com.bolsadeideas.springboot.backend.apirest.auth;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -9,25 +10,42 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.bolsadeideas.springboot.backend.apirest.models.services.UsuarioService;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @EnableGlobalMethodSecurity(securedEnabled=true)
 @Configuration
 public class SpringSecurityConfig extends WebSecurityConfigurerAdapter {
 
 	@Autowired
-	private UserDetailsService usuarioService;
+	private UsuarioService usuarioService;
+	
+	@Autowired
+	private MeterRegistry meterRegistry;
+	
+	@Value("${seguridad.password.fuerza:10}")
+	private int fuerzaPassword;
+	
+	@Value("${seguridad.password.hilos:4}")
+	private int hilosPassword;
+	
+	@Value("${seguridad.password.cola:64}")
+	private int colaPassword;
 	
 	@Bean
-	public BCryptPasswordEncoder passwordEncoder() {
-		return new BCryptPasswordEncoder();
+	public PasswordEncoder passwordEncoder() {
+		return new PasswordEncoderVerificador(fuerzaPassword, hilosPassword, colaPassword, meterRegistry);
 	}
 
 	@Override
 	@Autowired
 	protected void configure(AuthenticationManagerBuilder auth) throws Exception {
-		auth.userDetailsService(this.usuarioService).passwordEncoder(passwordEncoder());
+		// Con userDetailsPasswordManager las contraseñas con otra fuerza se vuelven a codificar tras un login correcto
+		auth.userDetailsService(this.usuarioService).passwordEncoder(passwordEncoder())
+		.userDetailsPasswordManager(this.usuarioService);
 	}
 
 	@Bean("authenticationManager")
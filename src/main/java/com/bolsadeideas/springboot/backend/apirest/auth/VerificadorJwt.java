@@ -0,0 +1,131 @@
+package com.bolsadeideas.springboot.backend.apirest.auth;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPublicKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.jwt.crypto.sign.RsaVerifier;
+
+import com.bolsadeideas.springboot.backend.apirest.models.services.CacheAcotada;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Verifica los access token JWT (RS256) que emite /oauth/token y construye con sus claims
+ * la autenticación de la petición: el usuario (user_name) y sus roles (authorities). El
+ * resultado de la verificación se guarda hasta la expiración del token, con el SHA-256 del
+ * token como clave para no retener los tokens en memoria; las peticiones siguientes con el
+ * mismo token no verifican la firma ni parsean el JSON. Cada petición recibe su propia
+ * Authentication, que es mutable y no se puede compartir entre peticiones concurrentes.
+ */
+public class VerificadorJwt {
+
+	private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	});
+
+	private final RsaVerifier verificador;
+
+	private final ObjectMapper objectMapper;
+
+	// Cada token verificado se guarda hasta su expiración, no hay tiempo de vida común
+	private final CacheAcotada<Huella, TokenVerificado> verificados;
+
+	// Un GrantedAuthority por rol, compartido por todas las autenticaciones
+	private final Map<String, GrantedAuthority> roles = new ConcurrentHashMap<>();
+
+	public VerificadorJwt(RSAPublicKey clave, ObjectMapper objectMapper, int tamanoMaximo) {
+		this.verificador = new RsaVerifier(clave);
+		this.objectMapper = objectMapper;
+		this.verificados = new CacheAcotada<>(tamanoMaximo, Long.MAX_VALUE);
+	}
+
+	public Authentication autenticar(String token) {
+		Huella huella = new Huella(SHA256.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+		TokenVerificado verificado = verificados.obtener(huella);
+		if (verificado == null) {
+			verificado = verificar(token, huella);
+		}
+		return new UsernamePasswordAuthenticationToken(verificado.usuario, null, verificado.autoridades);
+	}
+
+	private TokenVerificado verificar(String token, Huella huella) {
+		JsonNode claims;
+		try {
+			claims = objectMapper.readTree(JwtHelper.decodeAndVerify(token, verificador).getClaims());
+		} catch (RuntimeException | IOException e) {
+			throw new BadCredentialsException("El token no es válido");
+		}
+
+		// Los refresh token también van firmados con la misma clave, pero solo sirven en /oauth/token
+		if (claims.has("ati")) {
+			throw new BadCredentialsException("El token es un refresh token");
+		}
+		JsonNode usuario = claims.path("user_name");
+		JsonNode exp = claims.path("exp");
+		if (!usuario.isTextual() || !exp.isNumber()) {
+			throw new BadCredentialsException("El token no es válido");
+		}
+		long expira = exp.asLong() * 1000;
+		if (expira <= System.currentTimeMillis()) {
+			throw new BadCredentialsException("El token ha caducado");
+		}
+
+		List<GrantedAuthority> autoridades = new ArrayList<>();
+		for (JsonNode rol : claims.path("authorities")) {
+			autoridades.add(roles.computeIfAbsent(rol.asText(), SimpleGrantedAuthority::new));
+		}
+		TokenVerificado verificado = new TokenVerificado(usuario.asText(), Collections.unmodifiableList(autoridades));
+		verificados.guardarHasta(huella, verificado, expira);
+		return verificado;
+	}
+
+	private static final class TokenVerificado {
+		private final String usuario;
+		private final List<GrantedAuthority> autoridades;
+
+		private TokenVerificado(String usuario, List<GrantedAuthority> autoridades) {
+			this.usuario = usuario;
+			this.autoridades = autoridades;
+		}
+	}
+
+	private static final class Huella {
+		private final byte[] sha256;
+		private final int hash;
+
+		private Huella(byte[] sha256) {
+			this.sha256 = sha256;
+			this.hash = Arrays.hashCode(sha256);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object otro) {
+			return otro instanceof Huella && Arrays.equals(sha256, ((Huella) otro).sha256);
+		}
+	}
+
+}
@@ -1,24 +1,46 @@
 package com.bolsadeideas.springboot.backend.apirest.controllers;
 
+import java.io.File;
 import java.io.IOException;
-import java.net.MalformedURLException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.annotation.Secured;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -30,12 +52,24 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.bolsadeideas.springboot.backend.apirest.models.dto.ClienteDto;
+import com.bolsadeideas.springboot.backend.apirest.models.dto.FacturaResumen;
+import com.bolsadeideas.springboot.backend.apirest.models.dto.RegionDto;
 import com.bolsadeideas.springboot.backend.apirest.models.entity.Cliente;
-import com.bolsadeideas.springboot.backend.apirest.models.entity.Region;
+import com.bolsadeideas.springboot.backend.apirest.models.services.CacheReferencia;
+import com.bolsadeideas.springboot.backend.apirest.models.services.DatosReferencia;
+import com.bolsadeideas.springboot.backend.apirest.models.services.IClienteImportacionService;
 import com.bolsadeideas.springboot.backend.apirest.models.services.IClienteService;
-import com.bolsadeideas.springboot.backend.apirest.models.services.UploadFileServiceImpl;
+import com.bolsadeideas.springboot.backend.apirest.models.services.IUploadFileService;
+import com.bolsadeideas.springboot.backend.apirest.models.services.MetricasUploads;
+import com.bolsadeideas.springboot.backend.apirest.models.services.ResultadoImportacion;
 
 @CrossOrigin(origins = { "http://localhost:4200" })
 @RestController
@@ -46,31 +80,153 @@ public class ClienteRestController {
 	private IClienteService clienteService;
 
 	@Autowired
-	UploadFileServiceImpl uploadService;
+	private IUploadFileService uploadService;
+	
+	@Autowired
+	private IClienteImportacionService importacionService;
+	
+	@Autowired
+	private DatosReferencia datosReferencia;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	@Autowired
+	private MetricasUploads metricasUploads;
+	
+	// Número de filas que se leen de la base de datos en cada bloque de la exportación
+	private static final int TAMANO_BLOQUE_EXPORTACION = 500;
+	
+	// Tamaño máximo de página permitido en la paginación por cursor
+	@Value("${clientes.paginacion.tamano-maximo:50}")
+	private int tamanoMaximoPagina;
+	
+	// Las imágenes subidas tienen nombre único, por lo que se pueden cachear durante un año
+	private static final String CACHE_IMAGENES = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic()
+			.getHeaderValue() + ", immutable";
+	
+	// Atributos de petición con los que Tomcat envía un archivo mediante sendfile
+	private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+	private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+	private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+	private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+	
+	private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
 	
 	@GetMapping("/clientes")
-	public List<Cliente> index() {
+	public List<ClienteDto> index() {
 		return clienteService.findAll();
 	}
 
+	// Listado completo en streaming: los clientes se leen por bloques y se escriben
+	// directamente en la respuesta, como array JSON o como NDJSON (un cliente por línea)
+	@PresupuestoSql(sentencias = PresupuestoSql.SIN_LIMITE, tiempoMs = PresupuestoSql.SIN_LIMITE)
+	@GetMapping("/clientes/exportar")
+	public void exportar(@RequestParam(name = "formato", defaultValue = "json") String formato,
+			HttpServletResponse response) throws IOException {
+
+		boolean ndjson = "ndjson".equalsIgnoreCase(formato);
+		response.setContentType(ndjson ? "application/x-ndjson" : MediaType.APPLICATION_JSON_UTF8_VALUE);
+		response.setCharacterEncoding("UTF-8");
+
+		JsonGenerator generador = objectMapper.getFactory().createGenerator(response.getOutputStream());
+		generador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+		if (ndjson) {
+			generador.setRootValueSeparator(new SerializedString("\n"));
+		} else {
+			generador.writeStartArray();
+		}
+
+		long escritos;
+		try {
+			escritos = clienteService.exportarTodos(TAMANO_BLOQUE_EXPORTACION, bloque -> {
+				try {
+					for (ClienteDto cliente : bloque) {
+						generador.writeObject(cliente);
+					}
+					// Se vacía el buffer al terminar cada bloque para no retener la respuesta en memoria
+					generador.flush();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+
+		if (ndjson) {
+			if (escritos > 0) {
+				generador.writeRaw('\n');
+			}
+		} else {
+			generador.writeEndArray();
+		}
+		generador.close();
+	}
+
 	// Paginacion
 	@GetMapping("/clientes/page/{page}")
-	public Page<Cliente> index(@PathVariable int page) {
+	public Page<ClienteDto> index(@PathVariable int page) {
 		// Se crea una variable que almacena un pagequest con el la página actual y
 		// tamaño estático
 		Pageable pageable = PageRequest.of(page, 4);
 		return clienteService.findAll(pageable);
 	}
 
+	// Paginación por cursor: el cliente envía el último id (y, si ordena por fecha de alta,
+	// también la última fecha) recibido y obtiene la página siguiente. El total solo se
+	// calcula si se pide expresamente con contar=true
+	@GetMapping("/clientes/cursor")
+	public ResponseEntity<?> indexCursor(@RequestParam(name = "ultimoId", required = false) Long ultimoId,
+			@RequestParam(name = "ultimaFecha", required = false) @DateTimeFormat(iso = ISO.DATE) Date ultimaFecha,
+			@RequestParam(name = "orden", defaultValue = "id") String orden,
+			@RequestParam(name = "tamano", defaultValue = "4") int tamano,
+			@RequestParam(name = "contar", defaultValue = "false") boolean contar) {
+
+		int tamanoPagina = Math.max(1, Math.min(tamano, tamanoMaximoPagina));
+		boolean porFecha = ultimaFecha != null || "createAt".equalsIgnoreCase(orden);
+
+		Map<String, Object> response = new HashMap<>();
+
+		// Por fecha el cursor es el par (fecha, id): con solo uno de los dos no se sabe dónde seguir
+		if (porFecha && (ultimoId == null) != (ultimaFecha == null)) {
+			response.put("mensaje", "El cursor por fecha de alta necesita ultimoId y ultimaFecha");
+			return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+		}
+
+		Slice<ClienteDto> pagina = clienteService.findSiguientes(ultimoId, ultimaFecha, porFecha, tamanoPagina);
+
+		response.put("content", pagina.getContent());
+		response.put("size", tamanoPagina);
+		response.put("hasNext", pagina.hasNext());
+
+		// Cursor para pedir la página siguiente
+		if (pagina.hasContent()) {
+			ClienteDto ultimo = pagina.getContent().get(pagina.getNumberOfElements() - 1);
+			Map<String, Object> cursor = new HashMap<>();
+			cursor.put("ultimoId", ultimo.getId());
+			if (porFecha) {
+				cursor.put("ultimaFecha", new SimpleDateFormat("yyyy-MM-dd").format(ultimo.getCreateAt()));
+			}
+			response.put("cursor", cursor);
+		}
+
+		if (contar) {
+			response.put("totalElements", clienteService.count());
+		}
+		return new ResponseEntity<Map<String, Object>>(response, HttpStatus.OK);
+	}
+
 //	@Secured({"ROLE_ADMIN", "ROLE_USER"})
 	@GetMapping("/clientes/{id}")
 	public ResponseEntity<?> show(@PathVariable Long id) {
 
-		Cliente cliente = null;
+		ClienteDto cliente = null;
 		Map<String, Object> response = new HashMap<>();
 
 		try {
-			cliente = clienteService.findById(id);
+			cliente = clienteService.findClienteDtoById(id);
 		} catch (DataAccessException e) {
 			response.put("mensaje", "Error al realizar la consulta en la base de datos");
 			response.put("error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
@@ -82,7 +238,33 @@ public class ClienteRestController {
 			return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
 		}
 
-		return new ResponseEntity<Cliente>(cliente, HttpStatus.OK);
+		return new ResponseEntity<ClienteDto>(cliente, HttpStatus.OK);
+	}
+
+	// Facturas del cliente paginadas, de la más reciente a la más antigua, sin items ni productos
+	@Secured({"ROLE_ADMIN", "ROLE_USER"})
+	@GetMapping("/clientes/{id}/facturas")
+	public ResponseEntity<?> facturas(@PathVariable Long id, @RequestParam(defaultValue = "0") int page,
+			@RequestParam(defaultValue = "10") int size) {
+
+		Map<String, Object> response = new HashMap<>();
+		Page<FacturaResumen> facturas;
+
+		try {
+			facturas = clienteService.findFacturasByClienteId(id,
+					PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), tamanoMaximoPagina)));
+			// Solo se comprueba si el cliente existe cuando no tiene facturas
+			if (facturas.getTotalElements() == 0 && !clienteService.existsById(id)) {
+				response.put("mensaje", "El cliente ID: ".concat(id.toString().concat(" no existe en la base de datos!")));
+				return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
+			}
+		} catch (DataAccessException e) {
+			response.put("mensaje", "Error al realizar la consulta en la base de datos");
+			response.put("error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
+			return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+
+		return new ResponseEntity<Page<FacturaResumen>>(facturas, HttpStatus.OK);
 	}
 
 	@Secured("ROLE_ADMIN")
@@ -102,6 +284,12 @@ public class ClienteRestController {
 			return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
 		}
 
+		// La región se comprueba con los datos de referencia en memoria, sin consultar la base de datos
+		if (!datosReferencia.getRegiones().contiene(cliente.getRegion().getId())) {
+			response.put("errors", Collections.singletonList("El campo 'region' no corresponde a ninguna región"));
+			return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+		}
+
 		try {
 			clienteNew = clienteService.save(cliente);
 		} catch (DataAccessException e) {
@@ -111,10 +299,42 @@ public class ClienteRestController {
 		}
 
 		response.put("mensaje", "El cliente ha sido creado con éxito!");
-		response.put("cliente", clienteNew);
+		response.put("cliente", clienteService.findClienteDtoById(clienteNew.getId()));
 		return new ResponseEntity<Map<String, Object>>(response, HttpStatus.CREATED);
 	}
 
+	// Alta masiva desde CSV (con cabecera) o NDJSON; responde con las filas importadas y las rechazadas
+	@Secured("ROLE_ADMIN")
+	@PresupuestoSql(sentencias = PresupuestoSql.SIN_LIMITE, tiempoMs = PresupuestoSql.SIN_LIMITE)
+	@PostMapping(value = "/clientes/importar", consumes = { "text/csv", "application/x-ndjson" })
+	public ResponseEntity<?> importar(HttpServletRequest request) throws IOException {
+
+		Map<String, Object> response = new HashMap<>();
+		ResultadoImportacion resultado;
+
+		try {
+			if (MediaType.parseMediaType(request.getContentType()).isCompatibleWith(TEXT_CSV)) {
+				resultado = importacionService.importarCsv(request.getInputStream());
+			} else {
+				resultado = importacionService.importarNdjson(request.getInputStream());
+			}
+		} catch (IllegalArgumentException e) {
+			response.put("mensaje", e.getMessage());
+			return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+		} catch (DataAccessException e) {
+			response.put("mensaje", "Error al realizar el insert en la base de datos");
+			response.put("error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
+			return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+
+		response.put("mensaje", "Se han importado " + resultado.getImportados() + " clientes y se han rechazado "
+				+ resultado.getRechazados());
+		response.put("importados", resultado.getImportados());
+		response.put("rechazados", resultado.getRechazados());
+		response.put("errores", resultado.getErrores());
+		return new ResponseEntity<Map<String, Object>>(response, HttpStatus.OK);
+	}
+
 	@Secured("ROLE_ADMIN")
 	@PutMapping("/clientes/{id}")
 	public ResponseEntity<?> update(@Valid @RequestBody Cliente cliente, BindingResult result, @PathVariable Long id) {
@@ -141,6 +361,12 @@ public class ClienteRestController {
 			return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
 		}
 
+		// La región se comprueba con los datos de referencia en memoria, sin consultar la base de datos
+		if (!datosReferencia.getRegiones().contiene(cliente.getRegion().getId())) {
+			response.put("errors", Collections.singletonList("El campo 'region' no corresponde a ninguna región"));
+			return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+		}
+
 		try {
 
 			clienteActual.setApellido(cliente.getApellido());
@@ -158,7 +384,7 @@ public class ClienteRestController {
 		}
 
 		response.put("mensaje", "El cliente ha sido actualizado con éxito!");
-		response.put("cliente", clienteUpdated);
+		response.put("cliente", clienteService.findClienteDtoById(clienteUpdated.getId()));
 
 		return new ResponseEntity<Map<String, Object>>(response, HttpStatus.CREATED);
 	}
@@ -175,9 +401,9 @@ public class ClienteRestController {
 			// Antes de eliminar el cliente se elimina su imagen asignada
 			// Si el cliente tiene una fotografía asignada, se elimina
 			String nombreFotoAnterior = cliente.getFoto();
-			//Se elimina la imagen
-			uploadService.eliminar(nombreFotoAnterior);
 			clienteService.delete(id);
+			//Se elimina la imagen en segundo plano
+			uploadService.eliminarDiferido(nombreFotoAnterior);
 		} catch (DataAccessException e) {
 			response.put("mensaje", "Error al eliminar el cliente de la base de datos");
 			response.put("error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
@@ -211,18 +437,18 @@ public class ClienteRestController {
 				return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
 			}
 
-			// Si el cliente tiene una fotografía asignada, se elimina y se actualiza con la
-			// nueva
 			String nombreFotoAnterior = cliente.getFoto();
-			uploadService.eliminar(nombreFotoAnterior);
 
 			// Si todo es correcto se asigna el archivo al cliente
 			cliente.setFoto(nombreArchivo);
 			// Se actualiza el cliente
 			clienteService.save(cliente);
 
+			// Si el cliente tenía una fotografía asignada, se borra en segundo plano
+			uploadService.eliminarDiferido(nombreFotoAnterior);
+
 			// Se envia un mensale al response con el cliente actualizado y su archivo
-			response.put("cliente", cliente);
+			response.put("cliente", clienteService.findClienteDtoById(id));
 			response.put("mensaje", "Se ha subido correctamente la imagen: " + nombreArchivo);
 		}
 		return new ResponseEntity<Map<String, Object>>(response, HttpStatus.CREATED);
@@ -230,32 +456,86 @@ public class ClienteRestController {
 
 	//Método para ver la imagen asignada
 	//nombre:.+ expresión regular que indica que el parámetro incluye un punto y su extensión 
+	// Los nombres de archivo son únicos (UUID), así que la imagen nunca cambia: se sirve con
+	// un ETag fuerte, Last-Modified y caché inmutable, y el cuerpo se envía con sendfile
+	// cuando el conector lo admite
 	@GetMapping("/uploads/img/{nombreFoto:.+}")
-	public ResponseEntity<Resource> verFoto(@PathVariable String nombreFoto) throws MalformedURLException {
+	public ResponseEntity<Resource> verFoto(@PathVariable String nombreFoto,
+			@RequestParam(name = "size", required = false) Integer size, WebRequest webRequest,
+			HttpServletRequest request, HttpServletResponse response) throws IOException {
 
 		Resource recurso = uploadService.cargar(nombreFoto);
-		
-		//Por último se pasan las cabeceras de la respuesta HttpHeaders para forzar su descarga
+
 		HttpHeaders cabecera = new HttpHeaders();
-		//Se agrega un atributo ContentDisposition a la cabecera con su valor attachtment
-		cabecera.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + recurso.getFilename() + "\"");		//Se envia la cabecera con el content disposition como segundo argumento
-		return new ResponseEntity<Resource>(recurso,cabecera, HttpStatus.OK);
-		
+		cabecera.setContentType(MediaTypeFactory.getMediaType(recurso).orElse(MediaType.APPLICATION_OCTET_STREAM));
+		cabecera.add(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + recurso.getFilename() + "\"");
+		cabecera.add(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+		// Si no existe la imagen se devuelve la imagen por defecto, que está en memoria y
+		// no se debe cachear con este nombre
+		if (!recurso.isFile()) {
+			cabecera.setCacheControl(CacheControl.noCache().getHeaderValue());
+			return new ResponseEntity<Resource>(recurso, cabecera, HttpStatus.OK);
+		}
+
+		File archivo = recurso.getFile();
+
+		// Con ?size= se sirve la miniatura precalculada si ya está generada
+		String variante = nombreFoto;
+		if (size != null) {
+			Path miniatura = uploadService.getPathMiniatura(nombreFoto, size);
+			if (miniatura != null) {
+				archivo = miniatura.toFile();
+				variante = nombreFoto + "@" + miniatura.getParent().getFileName();
+			}
+		}
+
+		String etag = "\"" + DigestUtils.md5DigestAsHex(variante.getBytes(StandardCharsets.UTF_8)) + "\"";
+		if (webRequest.checkNotModified(etag, archivo.lastModified())) {
+			metricasUploads.navegador(true);
+			return null;
+		}
+		metricasUploads.navegador(false);
+		// Si se pidió una miniatura que aún no existe, el original no se cachea en su lugar
+		boolean miniaturaPendiente = size != null && variante.equals(nombreFoto);
+		cabecera.setCacheControl(miniaturaPendiente ? CacheControl.noCache().getHeaderValue() : CACHE_IMAGENES);
+
+		// Las peticiones parciales (Range) las resuelve Spring con un 206 y las regiones pedidas
+		if (request.getHeader(HttpHeaders.RANGE) != null) {
+			return new ResponseEntity<Resource>(new FileSystemResource(archivo), cabecera, HttpStatus.OK);
+		}
+
+		cabecera.forEach((nombre, valores) -> valores.forEach(valor -> response.addHeader(nombre, valor)));
+		response.setContentLengthLong(archivo.length());
+		if (HttpMethod.HEAD.matches(request.getMethod())) {
+			return null;
+		}
+		metricasUploads.descargados(archivo.length());
+
+		if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+			// Tomcat envía el archivo con sendfile desde el propio conector, sin pasar por la JVM
+			request.setAttribute(SENDFILE_FILENAME, archivo.getAbsolutePath());
+			request.setAttribute(SENDFILE_START, 0L);
+			request.setAttribute(SENDFILE_END, archivo.length());
+		} else {
+			// Sin sendfile no hay envío sin copias: el servlet solo ofrece un OutputStream y los
+			// bytes pasan por un buffer en el heap antes de llegar al socket
+			try (InputStream entrada = Files.newInputStream(archivo.toPath())) {
+				StreamUtils.copy(entrada, response.getOutputStream());
+			}
+		}
+		return null;
 	}
 	
+	// Las regiones se sirven desde memoria; el ETag permite responder 304 si no han cambiado
 	@Secured("ROLE_ADMIN")
 	@GetMapping("/clientes/regiones")
-	public List<Region> listaRegiones() {
-		return clienteService.findAllRegiones();
+	public ResponseEntity<List<RegionDto>> listaRegiones(WebRequest webRequest) {
+		CacheReferencia<RegionDto> regiones = datosReferencia.getRegiones();
+		if (webRequest.checkNotModified(regiones.getEtag())) {
+			return null;
+		}
+		return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(regiones.getTodos());
 	}
-	
-	
-	
-	
-	
-	
-	
-	
-	
-	
+
 }
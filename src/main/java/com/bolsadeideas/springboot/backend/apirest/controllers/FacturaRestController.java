@@ -1,9 +1,14 @@
 package com.bolsadeideas.springboot.backend.apirest.controllers;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.annotation.Secured;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -15,9 +20,13 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.bolsadeideas.springboot.backend.apirest.models.dto.FacturaDto;
+import com.bolsadeideas.springboot.backend.apirest.models.dto.FacturaLote;
+import com.bolsadeideas.springboot.backend.apirest.models.dto.ProductoDto;
 import com.bolsadeideas.springboot.backend.apirest.models.entity.Factura;
-import com.bolsadeideas.springboot.backend.apirest.models.entity.Producto;
 import com.bolsadeideas.springboot.backend.apirest.models.services.IClienteService;
+import com.bolsadeideas.springboot.backend.apirest.models.services.IFacturaLoteService;
+import com.bolsadeideas.springboot.backend.apirest.models.services.ResultadoLoteFacturas;
 
 @CrossOrigin(origins = { "http://localhost:4200" })
 @RestController
@@ -26,12 +35,15 @@ public class FacturaRestController {
 
 	@Autowired
 	private IClienteService clienteService;
+	
+	@Autowired
+	private IFacturaLoteService facturaLoteService;
 
 	@Secured({"ROLE_ADMIN", "ROLE_USER"})
 	@GetMapping("/facturas/{id}")
 	// Si todo sale bien se devuelve un OK
 	@ResponseStatus(HttpStatus.OK)
-	public Factura show(@PathVariable Long id) {
+	public FacturaDto show(@PathVariable Long id) {
 		// Devuelve la factura serializada en formato JSON
 		return clienteService.findFacturaById(id);
 	}
@@ -47,7 +59,7 @@ public class FacturaRestController {
 	@Secured({"ROLE_ADMIN"})
 	@GetMapping("/facturas/filtrar-productos/{term}")
 	@ResponseStatus(HttpStatus.OK)
-	public List<Producto> filtrarProductos(@PathVariable String term){
+	public List<ProductoDto> filtrarProductos(@PathVariable String term){
 		return clienteService.findProductoByNombre(term);
 	}
 	
@@ -55,9 +67,54 @@ public class FacturaRestController {
 	// Método para crear facturas
 	@Secured({"ROLE_ADMIN"})
 	@PostMapping("/facturas")
-	@ResponseStatus(HttpStatus.CREATED)
-	public Factura crear(@RequestBody Factura factura) {
-		return clienteService.saveFactura(factura);
+	public ResponseEntity<?> crear(@RequestBody Factura factura) {
+		
+		Factura facturaNueva;
+		
+		try {
+			facturaNueva = clienteService.saveFactura(factura);
+		} catch (IllegalArgumentException e) {
+			// Items sin producto, con cantidad no válida o con productos que no existen
+			Map<String, Object> response = new HashMap<>();
+			response.put("mensaje", e.getMessage());
+			return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+		}
+		
+		return new ResponseEntity<FacturaDto>(clienteService.findFacturaById(facturaNueva.getId()), HttpStatus.CREATED);
+	}
+	
+	// Método para crear muchas facturas en una petición (sincronización de los puntos de venta).
+	// Reenviar facturas con la misma clave de idempotencia no las duplica
+	@Secured({"ROLE_ADMIN"})
+	@PresupuestoSql(sentencias = PresupuestoSql.SIN_LIMITE, tiempoMs = PresupuestoSql.SIN_LIMITE)
+	@PostMapping("/facturas/lote")
+	public ResponseEntity<?> crearLote(@RequestBody List<FacturaLote> facturas) {
+		
+		Map<String, Object> response = new HashMap<>();
+		ResultadoLoteFacturas resultado;
+		
+		try {
+			resultado = facturaLoteService.crearFacturas(facturas);
+		} catch (IllegalArgumentException e) {
+			response.put("mensaje", e.getMessage());
+			return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+		} catch (DuplicateKeyException e) {
+			// Otra petición con las mismas claves se ha guardado a la vez; al reintentar saldrán como duplicadas
+			response.put("mensaje", "El lote se está procesando en otra petición, vuelva a intentarlo");
+			return new ResponseEntity<Map<String, Object>>(response, HttpStatus.CONFLICT);
+		} catch (DataAccessException e) {
+			response.put("mensaje", "Error al realizar el insert en la base de datos");
+			response.put("error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
+			return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+		
+		response.put("mensaje", "Se han creado " + resultado.getCreadas() + " facturas");
+		response.put("creadas", resultado.getCreadas());
+		response.put("duplicadas", resultado.getDuplicadas());
+		response.put("rechazadas", resultado.getRechazadas());
+		response.put("facturas", resultado.getFacturas());
+		response.put("errores", resultado.getErrores());
+		return new ResponseEntity<Map<String, Object>>(response, HttpStatus.OK);
 	}
 
 }
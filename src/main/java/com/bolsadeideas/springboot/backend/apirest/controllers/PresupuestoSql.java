@@ -0,0 +1,24 @@
+package com.bolsadeideas.springboot.backend.apirest.controllers;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Cambia para un endpoint el presupuesto SQL general (sql.presupuesto.*) que comprueba
+ * PresupuestoSqlFilter. Los valores negativos dejan el presupuesto general.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface PresupuestoSql {
+
+	int SIN_LIMITE = Integer.MAX_VALUE;
+
+	int sentencias() default -1;
+
+	int tiempoMs() default -1;
+
+}
@@ -0,0 +1,15 @@
+package com.bolsadeideas.springboot.backend.apirest.controllers;
+
+/**
+ * Se lanza, con sql.presupuesto.estricto=true, cuando una petición supera su presupuesto
+ * SQL, para que los tests de integración fallen.
+ */
+public class PresupuestoSqlExcedidoException extends IllegalStateException {
+
+	private static final long serialVersionUID = 1L;
+
+	public PresupuestoSqlExcedidoException(String message) {
+		super(message);
+	}
+
+}
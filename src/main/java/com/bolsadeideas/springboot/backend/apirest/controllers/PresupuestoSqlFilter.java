@@ -0,0 +1,149 @@
+package com.bolsadeideas.springboot.backend.apirest.controllers;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import com.bolsadeideas.springboot.backend.apirest.models.dao.SentenciasJdbc;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Cuenta las sentencias JDBC y su tiempo en cada petición HTTP y lo publica en las
+ * métricas http.peticiones.sentencias y http.peticiones.sql, etiquetadas por uri y método.
+ * Las peticiones que superan el presupuesto (sql.presupuesto.sentencias y tiempo-ms, o el
+ * de la anotación PresupuestoSql del endpoint) se registran con sus sentencias agrupadas
+ * por forma; con sql.presupuesto.estricto=true además se lanza una excepción.
+ * Solo se cuenta lo que se ejecuta en el hilo de la petición.
+ */
+@Component
+public class PresupuestoSqlFilter extends OncePerRequestFilter implements Ordered {
+
+	private final Logger log = LoggerFactory.getLogger(PresupuestoSqlFilter.class);
+
+	// Formas de SQL que se muestran en el log de una petición fuera de presupuesto
+	private static final int FORMAS_EN_LOG = 10;
+
+	private static final String ATRIBUTO_PRESUPUESTO = PresupuestoSql.class.getName();
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${sql.presupuesto.sentencias:20}")
+	private int maximoSentencias;
+
+	@Value("${sql.presupuesto.tiempo-ms:500}")
+	private int maximoTiempoMs;
+
+	@Value("${sql.presupuesto.estricto:false}")
+	private boolean estricto;
+
+	// Por fuera de la seguridad, para contar también las consultas de la autenticación
+	@Override
+	public int getOrder() {
+		return Ordered.HIGHEST_PRECEDENCE + 1;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+
+		SentenciasJdbc.Peticion peticion = SentenciasJdbc.iniciarPeticion();
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			SentenciasJdbc.terminarPeticion();
+			registrar(request, peticion);
+		}
+		comprobar(request, peticion);
+	}
+
+	private void registrar(HttpServletRequest request, SentenciasJdbc.Peticion peticion) {
+		String uri = uri(request);
+		DistributionSummary.builder("http.peticiones.sentencias").description("Sentencias JDBC por petición HTTP")
+				.tag("uri", uri).tag("method", request.getMethod()).register(meterRegistry)
+				.record(peticion.getSentencias());
+		Timer.builder("http.peticiones.sql").description("Tiempo de las sentencias JDBC por petición HTTP")
+				.tag("uri", uri).tag("method", request.getMethod()).register(meterRegistry)
+				.record(peticion.getNanos(), TimeUnit.NANOSECONDS);
+	}
+
+	private void comprobar(HttpServletRequest request, SentenciasJdbc.Peticion peticion) {
+		int sentencias = maximoSentencias;
+		int tiempoMs = maximoTiempoMs;
+		PresupuestoSql presupuesto = presupuesto(request);
+		if (presupuesto != null) {
+			sentencias = presupuesto.sentencias() < 0 ? sentencias : presupuesto.sentencias();
+			tiempoMs = presupuesto.tiempoMs() < 0 ? tiempoMs : presupuesto.tiempoMs();
+		}
+		long milis = TimeUnit.NANOSECONDS.toMillis(peticion.getNanos());
+		if (peticion.getSentencias() <= sentencias && milis <= tiempoMs) {
+			return;
+		}
+
+		StringBuilder mensaje = new StringBuilder();
+		mensaje.append(String.format(Locale.ROOT, "%s %s fuera del presupuesto SQL: %d sentencias (máximo %d), %d ms (máximo %d)",
+				request.getMethod(), request.getRequestURI(), peticion.getSentencias(), sentencias, milis, tiempoMs));
+		List<SentenciasJdbc.Forma> formas = peticion.getFormas();
+		for (SentenciasJdbc.Forma forma : formas.subList(0, Math.min(FORMAS_EN_LOG, formas.size()))) {
+			mensaje.append(String.format(Locale.ROOT, "%n  %5d x %6.1f ms  %s", forma.getEjecuciones(),
+					forma.getNanos() / 1_000_000.0, forma.getSql()));
+		}
+		if (formas.size() > FORMAS_EN_LOG) {
+			mensaje.append(String.format(Locale.ROOT, "%n  ... y %d formas más", formas.size() - FORMAS_EN_LOG));
+		}
+		log.warn(mensaje.toString());
+		if (estricto) {
+			throw new PresupuestoSqlExcedidoException(mensaje.toString());
+		}
+	}
+
+	private static PresupuestoSql presupuesto(HttpServletRequest request) {
+		return (PresupuestoSql) request.getAttribute(ATRIBUTO_PRESUPUESTO);
+	}
+
+	/**
+	 * Deja en la petición la anotación PresupuestoSql del endpoint que la atiende, que el
+	 * filtro no puede conocer por sí mismo.
+	 */
+	public static class Interceptor extends HandlerInterceptorAdapter {
+
+		@Override
+		public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+			if (handler instanceof HandlerMethod) {
+				PresupuestoSql presupuesto = ((HandlerMethod) handler).getMethodAnnotation(PresupuestoSql.class);
+				if (presupuesto != null) {
+					request.setAttribute(ATRIBUTO_PRESUPUESTO, presupuesto);
+				}
+			}
+			return true;
+		}
+
+	}
+
+	// El patrón de la ruta, como en http.server.requests, para no crear una métrica por URL
+	private static String uri(HttpServletRequest request) {
+		Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		return patron != null ? patron.toString() : "UNKNOWN";
+	}
+
+}
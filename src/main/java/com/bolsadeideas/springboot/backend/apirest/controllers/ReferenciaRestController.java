@@ -0,0 +1,55 @@
+package com.bolsadeideas.springboot.backend.apirest.controllers;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import com.bolsadeideas.springboot.backend.apirest.models.dto.RoleDto;
+import com.bolsadeideas.springboot.backend.apirest.models.services.CacheReferencia;
+import com.bolsadeideas.springboot.backend.apirest.models.services.DatosReferencia;
+
+@CrossOrigin(origins = { "http://localhost:4200" })
+@RestController
+@RequestMapping("/api")
+public class ReferenciaRestController {
+
+	@Autowired
+	private DatosReferencia datosReferencia;
+
+	// Los roles se sirven desde memoria, igual que las regiones, con ETag para responder 304
+	@Secured("ROLE_ADMIN")
+	@GetMapping("/roles")
+	public ResponseEntity<List<RoleDto>> roles(WebRequest webRequest) {
+		CacheReferencia<RoleDto> roles = datosReferencia.getRoles();
+		if (webRequest.checkNotModified(roles.getEtag())) {
+			return null;
+		}
+		return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(roles.getTodos());
+	}
+
+	// Vuelve a leer regiones y roles de la base de datos, por ejemplo tras modificarlos con SQL
+	@Secured("ROLE_ADMIN")
+	@PostMapping("/referencias/recargar")
+	public ResponseEntity<?> recargar() {
+		datosReferencia.recargarTodo();
+
+		Map<String, Object> response = new HashMap<>();
+		response.put("mensaje", "Datos de referencia recargados");
+		response.put("regiones", datosReferencia.getRegiones().size());
+		response.put("roles", datosReferencia.getRoles().size());
+		return new ResponseEntity<Map<String, Object>>(response, HttpStatus.OK);
+	}
+
+}
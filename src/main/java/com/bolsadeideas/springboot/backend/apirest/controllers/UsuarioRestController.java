@@ -0,0 +1,62 @@
+package com.bolsadeideas.springboot.backend.apirest.controllers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import com.bolsadeideas.springboot.backend.apirest.models.dto.UsuarioDto;
+import com.bolsadeideas.springboot.backend.apirest.models.services.IUsuarioService;
+
+@CrossOrigin(origins = { "http://localhost:4200" })
+@RestController
+@RequestMapping("/api")
+public class UsuarioRestController {
+
+	@Autowired
+	private IUsuarioService usuarioService;
+
+	// Datos de perfil del usuario autenticado, que ya no viajan dentro del token en modo
+	// compacto. El usuario se lee de la caché de usuarios y la respuesta lleva un ETag
+	// para que el cliente pueda revalidar sin descargarla de nuevo
+	@GetMapping("/usuarios/me")
+	public ResponseEntity<?> me(Authentication authentication, WebRequest request) {
+
+		UsuarioDto usuario = usuarioService.findByUsername(authentication.getName());
+
+		if (usuario == null) {
+			Map<String, Object> response = new LinkedHashMap<>();
+			response.put("mensaje", "El usuario '".concat(authentication.getName()).concat("' no existe en la base de datos!"));
+			return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
+		}
+
+		Map<String, Object> perfil = new LinkedHashMap<>();
+		perfil.put("username", usuario.getUsername());
+		perfil.put("nombre", usuario.getNombre());
+		perfil.put("apellido", usuario.getApellido());
+		perfil.put("email", usuario.getEmail());
+
+		String etag = "\"" + DigestUtils.md5DigestAsHex(perfil.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+		if (request.checkNotModified(etag)) {
+			return null;
+		}
+
+		return ResponseEntity.ok()
+				.cacheControl(CacheControl.maxAge(60, TimeUnit.SECONDS).cachePrivate())
+				.eTag(etag)
+				.body(perfil);
+	}
+
+}
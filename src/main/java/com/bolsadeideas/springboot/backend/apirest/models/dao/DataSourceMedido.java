@@ -0,0 +1,105 @@
+package com.bolsadeideas.springboot.backend.apirest.models.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Interceptor del DataSource que cuenta y cronometra cada ejecución de sentencia (execute,
+ * executeQuery, executeUpdate, executeBatch...) de las conexiones que entrega, sea de
+ * Hibernate o de JdbcTemplate, y la anota en SentenciasJdbc. Las conexiones y sentencias
+ * se envuelven con proxies de java.lang.reflect; el resto de llamadas pasan tal cual.
+ */
+class DataSourceMedido implements MethodInterceptor {
+
+	@Override
+	public Object invoke(MethodInvocation invocacion) throws Throwable {
+		Object resultado = invocacion.proceed();
+		if (resultado instanceof Connection && "getConnection".equals(invocacion.getMethod().getName())) {
+			return proxy(Connection.class, new ConexionMedida((Connection) resultado));
+		}
+		return resultado;
+	}
+
+	private static <T> T proxy(Class<T> tipo, InvocationHandler handler) {
+		return tipo.cast(Proxy.newProxyInstance(DataSourceMedido.class.getClassLoader(), new Class<?>[] { tipo }, handler));
+	}
+
+	private static Object invocar(Object destino, Method metodo, Object[] args) throws Throwable {
+		try {
+			return metodo.invoke(destino, args);
+		} catch (InvocationTargetException e) {
+			throw e.getTargetException();
+		}
+	}
+
+	private static class ConexionMedida implements InvocationHandler {
+
+		private final Connection conexion;
+
+		private ConexionMedida(Connection conexion) {
+			this.conexion = conexion;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+			switch (metodo.getName()) {
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "createStatement":
+			case "prepareStatement":
+			case "prepareCall":
+				// El tipo devuelto (Statement, PreparedStatement o CallableStatement) es el del proxy
+				Statement sentencia = (Statement) invocar(conexion, metodo, args);
+				String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+				return proxy(metodo.getReturnType(), new SentenciaMedida(sentencia, sql));
+			default:
+				return invocar(conexion, metodo, args);
+			}
+		}
+
+	}
+
+	private static class SentenciaMedida implements InvocationHandler {
+
+		private final Statement sentencia;
+
+		private final String sql;
+
+		private SentenciaMedida(Statement sentencia, String sql) {
+			this.sentencia = sentencia;
+			this.sql = sql;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+			switch (metodo.getName()) {
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			}
+			if (!metodo.getName().startsWith("execute")) {
+				return invocar(sentencia, metodo, args);
+			}
+			// Un Statement simple recibe la SQL en el propio execute
+			String ejecutada = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+			long inicio = System.nanoTime();
+			try {
+				return invocar(sentencia, metodo, args);
+			} finally {
+				SentenciasJdbc.registrar(ejecutada, System.nanoTime() - inicio);
+			}
+		}
+
+	}
+
+}
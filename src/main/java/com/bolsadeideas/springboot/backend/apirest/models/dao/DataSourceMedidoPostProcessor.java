@@ -0,0 +1,27 @@
+package com.bolsadeideas.springboot.backend.apirest.models.dao;
+
+import javax.sql.DataSource;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Añade DataSourceMedido al DataSource que configura Spring Boot. El proxy es de clase
+ * (CGLIB), así que sigue siendo un HikariDataSource y las métricas del pool lo encuentran.
+ */
+@Component
+public class DataSourceMedidoPostProcessor implements BeanPostProcessor {
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) {
+		if (bean instanceof DataSource) {
+			ProxyFactory proxy = new ProxyFactory(bean);
+			proxy.setProxyTargetClass(true);
+			proxy.addAdvice(new DataSourceMedido());
+			return proxy.getProxy(bean.getClass().getClassLoader());
+		}
+		return bean;
+	}
+
+}
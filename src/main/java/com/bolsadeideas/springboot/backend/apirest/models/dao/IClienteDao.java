@@ -1,15 +1,48 @@
 package com.bolsadeideas.springboot.backend.apirest.models.dao;
 
+import java.util.Date;
 import java.util.List;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
+import com.bolsadeideas.springboot.backend.apirest.models.dto.ClienteDto;
+import com.bolsadeideas.springboot.backend.apirest.models.dto.RegionDto;
 import com.bolsadeideas.springboot.backend.apirest.models.entity.Cliente;
-import com.bolsadeideas.springboot.backend.apirest.models.entity.Region;
 
 public interface IClienteDao extends JpaRepository<Cliente, Long>{
 
-	@Query("from Region")
-	public List<Region> findAllRegiones();
+	// Las consultas de lectura construyen directamente el DTO de la respuesta con la región
+	// en la misma fila, sin entidades gestionadas ni proxies lazy
+	static final String SELECT_CLIENTE_DTO = "select new com.bolsadeideas.springboot.backend.apirest.models.dto.ClienteDto("
+			+ "c.id, c.nombre, c.apellido, c.email, c.createAt, c.foto, r.id, r.nombre) from Cliente c left join c.region r ";
+
+	@Query("select new com.bolsadeideas.springboot.backend.apirest.models.dto.RegionDto(r.id, r.nombre) from Region r order by r.id")
+	public List<RegionDto> findAllRegiones();
+
+	@Query(SELECT_CLIENTE_DTO + "order by c.id asc")
+	public List<ClienteDto> findAllDto();
+
+	@Query(value = SELECT_CLIENTE_DTO, countQuery = "select count(c) from Cliente c")
+	public Page<ClienteDto> findAllDto(Pageable pageable);
+
+	@Query(SELECT_CLIENTE_DTO + "where c.id = ?1")
+	public ClienteDto findDtoById(Long id);
+
+	// Paginación por clave (keyset): devuelve los clientes con id mayor al último leído,
+	// sin OFFSET ni count(*), con la región cargada en la misma consulta
+	@Query(SELECT_CLIENTE_DTO + "where c.id > ?1 order by c.id asc")
+	public List<ClienteDto> findSiguientes(Long ultimoId, Pageable pageable);
+
+	// Paginación por clave compuesta (createAt, id) para recorrer los clientes por fecha de alta
+	@Query(SELECT_CLIENTE_DTO + "where c.createAt > ?1 or (c.createAt = ?1 and c.id > ?2) order by c.createAt asc, c.id asc")
+	public List<ClienteDto> findSiguientesPorFecha(Date ultimaFecha, Long ultimoId, Pageable pageable);
+
+	@Query(SELECT_CLIENTE_DTO + "order by c.createAt asc, c.id asc")
+	public List<ClienteDto> findPrimerosPorFecha(Pageable pageable);
+
+	// Número de clientes que usan una foto, para no borrar imágenes compartidas
+	public long countByFoto(String foto);
 }
@@ -2,11 +2,28 @@ package com.bolsadeideas.springboot.backend.apirest.models.dao;
 
 import javax.transaction.Transactional;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
+import com.bolsadeideas.springboot.backend.apirest.models.dto.FacturaResumen;
 import com.bolsadeideas.springboot.backend.apirest.models.entity.Factura;
 
 @Transactional
 public interface IFacturaDao extends CrudRepository<Factura, Long>{
 
+	// Carga la factura con sus items, productos, cliente y región en una sola consulta
+	// para que la serialización a JSON no dispare una consulta por cada relación lazy
+	@Query("select distinct f from Factura f left join fetch f.items i left join fetch i.producto "
+			+ "left join fetch f.cliente c left join fetch c.region where f.id = ?1")
+	public Factura findByIdConItems(Long id);
+	
+	// Resumen de las facturas de un cliente con el número de items, agregado en la propia consulta
+	@Query(value = "select new com.bolsadeideas.springboot.backend.apirest.models.dto.FacturaResumen("
+			+ "f.id, f.descripcion, f.createAt, f.total, count(i)) from Factura f left join f.items i "
+			+ "where f.cliente.id = ?1 group by f.id, f.descripcion, f.createAt, f.total "
+			+ "order by f.createAt desc, f.id desc",
+			countQuery = "select count(f) from Factura f where f.cliente.id = ?1")
+	public Page<FacturaResumen> findResumenByClienteId(Long clienteId, Pageable pageable);
 }
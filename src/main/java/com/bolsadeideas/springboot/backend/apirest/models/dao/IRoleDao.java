@@ -0,0 +1,16 @@
+package com.bolsadeideas.springboot.backend.apirest.models.dao;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+
+import com.bolsadeideas.springboot.backend.apirest.models.dto.RoleDto;
+import com.bolsadeideas.springboot.backend.apirest.models.entity.Role;
+
+public interface IRoleDao extends CrudRepository<Role, Long> {
+
+	@Query("select new com.bolsadeideas.springboot.backend.apirest.models.dto.RoleDto(r.id, r.nombre) from Role r order by r.id")
+	public List<RoleDto> findAllRoles();
+
+}
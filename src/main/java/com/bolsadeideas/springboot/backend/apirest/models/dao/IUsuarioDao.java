@@ -12,4 +12,8 @@ public interface IUsuarioDao extends CrudRepository<Usuario, Long>{
 	@Query("select u from Usuario u where u.username=?1")
 	public Usuario findByUsername2(String username);
 
+	// Carga el usuario junto con sus roles en una sola consulta
+	@Query("select distinct u from Usuario u left join fetch u.roles where u.username=?1")
+	public Usuario findByUsernameConRoles(String username);
+
 }
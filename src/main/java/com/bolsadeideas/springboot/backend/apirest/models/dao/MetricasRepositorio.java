@@ -0,0 +1,74 @@
+package com.bolsadeideas.springboot.backend.apirest.models.dao;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Mide cada llamada a un repositorio: tiempo y número de sentencias SQL que ha lanzado
+ * (según SentenciasJdbc). Los medidores se crean una vez por método.
+ */
+class MetricasRepositorio implements MethodInterceptor {
+
+	private final ObjectProvider<MeterRegistry> registry;
+
+	private final String repositorio;
+
+	private final Map<Method, Medidores> medidores = new ConcurrentHashMap<>();
+
+	MetricasRepositorio(ObjectProvider<MeterRegistry> registry, String repositorio) {
+		this.registry = registry;
+		this.repositorio = repositorio;
+	}
+
+	@Override
+	public Object invoke(MethodInvocation invocacion) throws Throwable {
+		Method metodo = invocacion.getMethod();
+		if (metodo.getDeclaringClass() == Object.class) {
+			return invocacion.proceed();
+		}
+		Medidores medidor = medidores.computeIfAbsent(metodo, this::crear);
+		long sentencias = SentenciasJdbc.getSentencias();
+		long inicio = System.nanoTime();
+		try {
+			return invocacion.proceed();
+		} finally {
+			medidor.tiempo.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+			medidor.sentencias.record(SentenciasJdbc.getSentencias() - sentencias);
+		}
+	}
+
+	private Medidores crear(Method metodo) {
+		MeterRegistry meterRegistry = registry.getObject();
+		Timer tiempo = Timer.builder("repositorio.llamadas").description("Tiempo de las llamadas a los repositorios")
+				.tag("repositorio", repositorio).tag("metodo", metodo.getName()).publishPercentileHistogram()
+				.register(meterRegistry);
+		DistributionSummary sentencias = DistributionSummary.builder("repositorio.sentencias")
+				.description("Sentencias SQL por llamada a los repositorios").tag("repositorio", repositorio)
+				.tag("metodo", metodo.getName()).register(meterRegistry);
+		return new Medidores(tiempo, sentencias);
+	}
+
+	private static class Medidores {
+
+		private final Timer tiempo;
+
+		private final DistributionSummary sentencias;
+
+		private Medidores(Timer tiempo, DistributionSummary sentencias) {
+			this.tiempo = tiempo;
+			this.sentencias = sentencias;
+		}
+
+	}
+
+}
@@ -0,0 +1,38 @@
+package com.bolsadeideas.springboot.backend.apirest.models.dao;
+
+import javax.persistence.EntityManager;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactoryBean;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.support.RepositoryFactorySupport;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Factoría de los repositorios JPA que añade a cada proxy un interceptor con el tiempo y
+ * las sentencias SQL de cada método (repositorio.llamadas y repositorio.sentencias, con
+ * las etiquetas repositorio y metodo). Se activa con repositoryFactoryBeanClass en
+ * EnableJpaRepositories.
+ */
+public class RepositorioMedidoFactoryBean<T extends Repository<S, ID>, S, ID>
+		extends JpaRepositoryFactoryBean<T, S, ID> {
+
+	// El registro se resuelve en la primera llamada: los repositorios se crean antes que él
+	@Autowired
+	private ObjectProvider<MeterRegistry> registry;
+
+	public RepositorioMedidoFactoryBean(Class<? extends T> repositoryInterface) {
+		super(repositoryInterface);
+	}
+
+	@Override
+	protected RepositoryFactorySupport createRepositoryFactory(EntityManager entityManager) {
+		RepositoryFactorySupport factoria = super.createRepositoryFactory(entityManager);
+		factoria.addRepositoryProxyPostProcessor((proxy, informacion) -> proxy
+				.addAdvice(new MetricasRepositorio(registry, informacion.getRepositoryInterface().getSimpleName())));
+		return factoria;
+	}
+
+}
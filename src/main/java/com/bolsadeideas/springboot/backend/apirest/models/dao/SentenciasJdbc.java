@@ -0,0 +1,139 @@
+package com.bolsadeideas.springboot.backend.apirest.models.dao;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Sentencias JDBC ejecutadas en el hilo actual, contadas por DataSourceMedido. Se guarda
+ * un total acumulado (para medir una llamada se lee antes y después y se resta) y,
+ * mientras hay una petición abierta, cada SQL con sus ejecuciones y su tiempo.
+ */
+public class SentenciasJdbc {
+
+	private static final ThreadLocal<SentenciasJdbc> HILO = ThreadLocal.withInitial(SentenciasJdbc::new);
+
+	// SQL distintas que se guardan por petición; a partir de ahí se suman en una sola entrada
+	private static final int MAXIMO_SQL = 100;
+
+	private static final String OTRAS = "(otras sentencias)";
+
+	private static final String LOTE = "(lote)";
+
+	private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+	private static final Pattern CADENAS = Pattern.compile("'(?:[^']|'')*'");
+
+	private static final Pattern NUMEROS = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+
+	private static final Pattern LISTAS_IN = Pattern.compile("(?i)\\bin \\(\\?(?: ?, ?\\?)*\\)");
+
+	private long sentencias;
+
+	private Peticion peticion;
+
+	public static long getSentencias() {
+		return HILO.get().sentencias;
+	}
+
+	public static Peticion iniciarPeticion() {
+		SentenciasJdbc actual = HILO.get();
+		actual.peticion = new Peticion();
+		return actual.peticion;
+	}
+
+	public static void terminarPeticion() {
+		HILO.get().peticion = null;
+	}
+
+	static void registrar(String sql, long nanos) {
+		SentenciasJdbc actual = HILO.get();
+		actual.sentencias++;
+		if (actual.peticion != null) {
+			actual.peticion.registrar(sql == null ? LOTE : sql, nanos);
+		}
+	}
+
+	// Forma de una sentencia: sin literales y con las listas IN de cualquier tamaño iguales
+	static String forma(String sql) {
+		String forma = ESPACIOS.matcher(sql.trim()).replaceAll(" ");
+		forma = CADENAS.matcher(forma).replaceAll("?");
+		forma = NUMEROS.matcher(forma).replaceAll("?");
+		return LISTAS_IN.matcher(forma).replaceAll("in (...)");
+	}
+
+	public static class Peticion {
+
+		private long sentencias;
+
+		private long nanos;
+
+		private final Map<String, Forma> sqls = new HashMap<>();
+
+		private void registrar(String sql, long nanos) {
+			this.sentencias++;
+			this.nanos += nanos;
+			Forma forma = sqls.get(sql);
+			if (forma == null) {
+				forma = sqls.computeIfAbsent(sqls.size() < MAXIMO_SQL ? sql : OTRAS, Forma::new);
+			}
+			forma.sumar(1, nanos);
+		}
+
+		public long getSentencias() {
+			return sentencias;
+		}
+
+		public long getNanos() {
+			return nanos;
+		}
+
+		// Las sentencias agrupadas por forma, de más a menos ejecuciones
+		public List<Forma> getFormas() {
+			Map<String, Forma> formas = new LinkedHashMap<>();
+			for (Forma sql : sqls.values()) {
+				formas.computeIfAbsent(forma(sql.getSql()), Forma::new).sumar(sql.getEjecuciones(), sql.getNanos());
+			}
+			List<Forma> lista = new ArrayList<>(formas.values());
+			lista.sort(Comparator.comparingLong(Forma::getEjecuciones).reversed());
+			return lista;
+		}
+
+	}
+
+	public static class Forma {
+
+		private final String sql;
+
+		private long ejecuciones;
+
+		private long nanos;
+
+		private Forma(String sql) {
+			this.sql = sql;
+		}
+
+		private void sumar(long ejecuciones, long nanos) {
+			this.ejecuciones += ejecuciones;
+			this.nanos += nanos;
+		}
+
+		public String getSql() {
+			return sql;
+		}
+
+		public long getEjecuciones() {
+			return ejecuciones;
+		}
+
+		public long getNanos() {
+			return nanos;
+		}
+
+	}
+
+}
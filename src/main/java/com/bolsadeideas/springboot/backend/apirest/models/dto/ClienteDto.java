@@ -0,0 +1,73 @@
+package com.bolsadeideas.springboot.backend.apirest.models.dto;
+
+import java.util.Date;
+
+import com.bolsadeideas.springboot.backend.apirest.models.entity.Cliente;
+
+/**
+ * Datos de un cliente tal como se envían en las respuestas. Se construye en la consulta
+ * (select new) o a partir de la entidad dentro de la transacción, de modo que la
+ * serialización no depende de una sesión abierta.
+ */
+public class ClienteDto {
+
+	private final Long id;
+
+	private final String nombre;
+
+	private final String apellido;
+
+	private final String email;
+
+	private final Date createAt;
+
+	private final String foto;
+
+	private final RegionDto region;
+
+	public ClienteDto(Long id, String nombre, String apellido, String email, Date createAt, String foto,
+			Long regionId, String regionNombre) {
+		this.id = id;
+		this.nombre = nombre;
+		this.apellido = apellido;
+		this.email = email;
+		this.createAt = createAt;
+		this.foto = foto;
+		this.region = regionId != null ? new RegionDto(regionId, regionNombre) : null;
+	}
+
+	public ClienteDto(Cliente cliente) {
+		this(cliente.getId(), cliente.getNombre(), cliente.getApellido(), cliente.getEmail(), cliente.getCreateAt(),
+				cliente.getFoto(), cliente.getRegion() != null ? cliente.getRegion().getId() : null,
+				cliente.getRegion() != null ? cliente.getRegion().getNombre() : null);
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getNombre() {
+		return nombre;
+	}
+
+	public String getApellido() {
+		return apellido;
+	}
+
+	public String getEmail() {
+		return email;
+	}
+
+	public Date getCreateAt() {
+		return createAt;
+	}
+
+	public String getFoto() {
+		return foto;
+	}
+
+	public RegionDto getRegion() {
+		return region;
+	}
+
+}
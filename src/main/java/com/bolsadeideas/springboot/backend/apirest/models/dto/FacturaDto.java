@@ -0,0 +1,70 @@
+package com.bolsadeideas.springboot.backend.apirest.models.dto;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.bolsadeideas.springboot.backend.apirest.models.entity.Factura;
+
+/**
+ * Detalle de una factura con su cliente, items y productos. Se copia desde la entidad
+ * cargada con una sola consulta, dentro de la transacción del servicio.
+ */
+public class FacturaDto {
+
+	private final Long id;
+
+	private final String descripcion;
+
+	private final String observacion;
+
+	private final Date createAt;
+
+	private final BigDecimal total;
+
+	private final ClienteDto cliente;
+
+	private final List<ItemFacturaDto> items;
+
+	public FacturaDto(Factura factura) {
+		this.id = factura.getId();
+		this.descripcion = factura.getDescripcion();
+		this.observacion = factura.getObservacion();
+		this.createAt = factura.getCreateAt();
+		this.total = factura.getTotal();
+		this.cliente = factura.getCliente() != null ? new ClienteDto(factura.getCliente()) : null;
+		this.items = Collections.unmodifiableList(
+				factura.getItems().stream().map(ItemFacturaDto::new).collect(Collectors.toList()));
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getDescripcion() {
+		return descripcion;
+	}
+
+	public String getObservacion() {
+		return observacion;
+	}
+
+	public Date getCreateAt() {
+		return createAt;
+	}
+
+	public BigDecimal getTotal() {
+		return total;
+	}
+
+	public ClienteDto getCliente() {
+		return cliente;
+	}
+
+	public List<ItemFacturaDto> getItems() {
+		return items;
+	}
+
+}
@@ -0,0 +1,62 @@
+package com.bolsadeideas.springboot.backend.apirest.models.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Factura tal como llega en una carga por lotes: el cliente y los productos se indican
+ * solo por su id, y la clave de idempotencia identifica la factura en el sistema de origen.
+ */
+public class FacturaLote {
+
+	private String claveIdempotencia;
+
+	private Long clienteId;
+
+	private String descripcion;
+
+	private String observacion;
+
+	private List<ItemFacturaLote> items = new ArrayList<>();
+
+	public String getClaveIdempotencia() {
+		return claveIdempotencia;
+	}
+
+	public void setClaveIdempotencia(String claveIdempotencia) {
+		this.claveIdempotencia = claveIdempotencia;
+	}
+
+	public Long getClienteId() {
+		return clienteId;
+	}
+
+	public void setClienteId(Long clienteId) {
+		this.clienteId = clienteId;
+	}
+
+	public String getDescripcion() {
+		return descripcion;
+	}
+
+	public void setDescripcion(String descripcion) {
+		this.descripcion = descripcion;
+	}
+
+	public String getObservacion() {
+		return observacion;
+	}
+
+	public void setObservacion(String observacion) {
+		this.observacion = observacion;
+	}
+
+	public List<ItemFacturaLote> getItems() {
+		return items;
+	}
+
+	public void setItems(List<ItemFacturaLote> items) {
+		this.items = items;
+	}
+
+}
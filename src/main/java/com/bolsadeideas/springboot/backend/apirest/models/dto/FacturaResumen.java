@@ -0,0 +1,50 @@
+package com.bolsadeideas.springboot.backend.apirest.models.dto;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Resumen de una factura para el listado de facturas de un cliente. Se construye
+ * directamente desde la consulta, sin cargar la entidad ni sus items.
+ */
+public class FacturaResumen {
+
+	private final Long id;
+
+	private final String descripcion;
+
+	private final Date createAt;
+
+	private final BigDecimal total;
+
+	private final long numeroItems;
+
+	public FacturaResumen(Long id, String descripcion, Date createAt, BigDecimal total, long numeroItems) {
+		this.id = id;
+		this.descripcion = descripcion;
+		this.createAt = createAt;
+		this.total = total;
+		this.numeroItems = numeroItems;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getDescripcion() {
+		return descripcion;
+	}
+
+	public Date getCreateAt() {
+		return createAt;
+	}
+
+	public BigDecimal getTotal() {
+		return total;
+	}
+
+	public long getNumeroItems() {
+		return numeroItems;
+	}
+
+}
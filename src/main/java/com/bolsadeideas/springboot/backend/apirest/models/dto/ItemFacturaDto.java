@@ -0,0 +1,40 @@
+package com.bolsadeideas.springboot.backend.apirest.models.dto;
+
+import java.math.BigDecimal;
+
+import com.bolsadeideas.springboot.backend.apirest.models.entity.ItemFactura;
+
+public class ItemFacturaDto {
+
+	private final Long id;
+
+	private final Integer cantidad;
+
+	private final BigDecimal importe;
+
+	private final ProductoDto producto;
+
+	public ItemFacturaDto(ItemFactura item) {
+		this.id = item.getId();
+		this.cantidad = item.getCantidad();
+		this.importe = item.getImporte();
+		this.producto = new ProductoDto(item.getProducto());
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public Integer getCantidad() {
+		return cantidad;
+	}
+
+	public BigDecimal getImporte() {
+		return importe;
+	}
+
+	public ProductoDto getProducto() {
+		return producto;
+	}
+
+}
@@ -0,0 +1,25 @@
+package com.bolsadeideas.springboot.backend.apirest.models.dto;
+
+public class ItemFacturaLote {
+
+	private Long productoId;
+
+	private Integer cantidad;
+
+	public Long getProductoId() {
+		return productoId;
+	}
+
+	public void setProductoId(Long productoId) {
+		this.productoId = productoId;
+	}
+
+	public Integer getCantidad() {
+		return cantidad;
+	}
+
+	public void setCantidad(Integer cantidad) {
+		this.cantidad = cantidad;
+	}
+
+}
@@ -0,0 +1,40 @@
+package com.bolsadeideas.springboot.backend.apirest.models.dto;
+
+import java.util.Date;
+
+import com.bolsadeideas.springboot.backend.apirest.models.entity.Producto;
+
+public class ProductoDto {
+
+	private final Long id;
+
+	private final String nombre;
+
+	private final Double precio;
+
+	private final Date createAt;
+
+	public ProductoDto(Producto producto) {
+		this.id = producto.getId();
+		this.nombre = producto.getNombre();
+		this.precio = producto.getPrecio();
+		this.createAt = producto.getCreateAt();
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getNombre() {
+		return nombre;
+	}
+
+	public Double getPrecio() {
+		return precio;
+	}
+
+	public Date getCreateAt() {
+		return createAt;
+	}
+
+}
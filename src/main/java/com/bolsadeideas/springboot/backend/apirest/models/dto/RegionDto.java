@@ -0,0 +1,22 @@
+package com.bolsadeideas.springboot.backend.apirest.models.dto;
+
+public class RegionDto {
+
+	private final Long id;
+
+	private final String nombre;
+
+	public RegionDto(Long id, String nombre) {
+		this.id = id;
+		this.nombre = nombre;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getNombre() {
+		return nombre;
+	}
+
+}
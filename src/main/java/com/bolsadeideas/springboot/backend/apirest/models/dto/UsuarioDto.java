@@ -0,0 +1,68 @@
+package com.bolsadeideas.springboot.backend.apirest.models.dto;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.bolsadeideas.springboot.backend.apirest.models.entity.Role;
+import com.bolsadeideas.springboot.backend.apirest.models.entity.Usuario;
+
+/**
+ * Copia inmutable de un usuario con los nombres de sus roles, que se guarda en la caché de
+ * usuarios y se comparte entre hilos sin depender de la sesión de Hibernate.
+ */
+public class UsuarioDto {
+
+	private final String username;
+
+	private final String password;
+
+	private final boolean enabled;
+
+	private final String nombre;
+
+	private final String apellido;
+
+	private final String email;
+
+	private final List<String> roles;
+
+	public UsuarioDto(Usuario usuario) {
+		this.username = usuario.getUsername();
+		this.password = usuario.getPassword();
+		this.enabled = Boolean.TRUE.equals(usuario.getEnabled());
+		this.nombre = usuario.getNombre();
+		this.apellido = usuario.getApellido();
+		this.email = usuario.getEmail();
+		this.roles = Collections.unmodifiableList(usuario.getRoles().stream().map(Role::getNombre).collect(Collectors.toList()));
+	}
+
+	public String getUsername() {
+		return username;
+	}
+
+	public String getPassword() {
+		return password;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public String getNombre() {
+		return nombre;
+	}
+
+	public String getApellido() {
+		return apellido;
+	}
+
+	public String getEmail() {
+		return email;
+	}
+
+	public List<String> getRoles() {
+		return roles;
+	}
+
+}
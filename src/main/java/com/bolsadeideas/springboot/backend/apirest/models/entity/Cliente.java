@@ -12,6 +12,7 @@ import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
@@ -23,10 +24,12 @@ import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
-@Table(name = "clientes")
+// Índices para la paginación por cursor sobre (create_at, id) y para contar las referencias a cada foto
+@Table(name = "clientes", indexes = { @Index(name = "idx_clientes_create_at_id", columnList = "create_at, id"),
+		@Index(name = "idx_clientes_foto", columnList = "foto") })
 public class Cliente implements Serializable {
 
 	@Id
@@ -56,12 +59,10 @@ public class Cliente implements Serializable {
 	@NotNull(message = "la región no puede ser vacia")
 	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "region_id")
-	// Ignora las propiedades de hibernate en el json para que solo envie los datos del objeto
-	@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 	private Region region;
 
-	// Ignora las propiedades basura de hibernate en el json para que solo envie los datos del objeto
-	@JsonIgnoreProperties(value={"cliente", "hibernateLazyInitializer", "handler"}, allowSetters=true)
+	// Las facturas no se envían con el cliente; se consultan paginadas en /api/clientes/{id}/facturas
+	@JsonIgnore
 	@OneToMany(fetch = FetchType.LAZY, mappedBy = "cliente", cascade = CascadeType.ALL)
 	private List<Factura> facturas;
 
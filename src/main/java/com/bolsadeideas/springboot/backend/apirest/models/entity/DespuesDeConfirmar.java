@@ -0,0 +1,26 @@
+package com.bolsadeideas.springboot.backend.apirest.models.entity;
+
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Ejecuta una acción de los listeners de entidades cuando se confirma la transacción en curso,
+// o en el momento si no hay ninguna, para que las cachés no vean cambios que luego se deshacen
+final class DespuesDeConfirmar {
+
+	private DespuesDeConfirmar() {
+	}
+
+	static void ejecutar(Runnable accion) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCommit() {
+					accion.run();
+				}
+			});
+		} else {
+			accion.run();
+		}
+	}
+
+}
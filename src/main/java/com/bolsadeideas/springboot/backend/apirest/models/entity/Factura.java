@@ -1,6 +1,7 @@
 package com.bolsadeideas.springboot.backend.apirest.models.entity;
 
 import java.io.Serializable;
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -12,6 +13,7 @@ import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
@@ -20,10 +22,9 @@ import javax.persistence.Table;
 import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
 
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-
 @Entity
-@Table(name = "facturas")
+// Índice para listar las facturas de un cliente por fecha
+@Table(name = "facturas", indexes = @Index(name = "idx_facturas_cliente_create_at", columnList = "cliente_id, create_at"))
 public class Factura implements Serializable {
 
 	@Id
@@ -38,13 +39,17 @@ public class Factura implements Serializable {
 	@Temporal(TemporalType.DATE)
 	private Date createAt;
 
-	// Ignora las propiedades de hibernate en el json para que solo envie los datos del objeto
-	@JsonIgnoreProperties(value={"facturas", "hibernateLazyInitializer", "handler"}, allowSetters=true)
+	// Clave que envía el sistema de origen para que reintentar una carga no duplique la factura
+	@Column(name = "clave_idempotencia", unique = true, length = 64)
+	private String claveIdempotencia;
+
+	// Total calculado al guardar la factura, para no tener que cargar los items para mostrarlo
+	@Column(precision = 14, scale = 2)
+	private BigDecimal total;
+
 	@ManyToOne(fetch = FetchType.LAZY)
 	private Cliente cliente;
 
-	// Ignora las propiedades de hibernate en el json para que solo envie los datos del objeto
-	@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 	@OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
 	@JoinColumn(name = "factura_id")
 	private List<ItemFactura> items;
@@ -90,6 +95,14 @@ public class Factura implements Serializable {
 		this.createAt = createAt;
 	}
 
+	public String getClaveIdempotencia() {
+		return claveIdempotencia;
+	}
+
+	public void setClaveIdempotencia(String claveIdempotencia) {
+		this.claveIdempotencia = claveIdempotencia;
+	}
+
 	public Cliente getCliente() {
 		return cliente;
 	}
@@ -106,12 +119,17 @@ public class Factura implements Serializable {
 		this.items = items;
 	}
 
-	public Double getTotal() {
-		Double total = 0.00;
+	public BigDecimal getTotal() {
+		return total;
+	}
+
+	// Requiere que los items ya tengan calculado su importe
+	public void calcularTotal() {
+		BigDecimal total = BigDecimal.ZERO;
 		for (ItemFactura item : items) {
-			total += item.getImporte();
+			total = total.add(item.getImporte());
 		}
-		return total;
+		this.total = total;
 	}
 
 	private static final long serialVersionUID = 1L;
@@ -1,7 +1,10 @@
 package com.bolsadeideas.springboot.backend.apirest.models.entity;
 
 import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
@@ -11,8 +14,6 @@ import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-
 @Entity
 @Table(name = "facturas_items")
 public class ItemFactura implements Serializable {
@@ -22,8 +23,11 @@ public class ItemFactura implements Serializable {
 	private Long id;
 
 	private Integer cantidad;
-	// Ignora las propiedades de hibernate en el json para que solo envie los datos del objeto
-	@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
+
+	// Importe de la línea con el precio que tenía el producto al crear la factura
+	@Column(precision = 14, scale = 2)
+	private BigDecimal importe;
+
 	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "producto_id")
 	private Producto producto;
@@ -44,8 +48,12 @@ public class ItemFactura implements Serializable {
 		this.cantidad = cantidad;
 	}
 
-	public Double getImporte() {
-		return cantidad.doubleValue() * producto.getPrecio();
+	public BigDecimal getImporte() {
+		return importe;
+	}
+
+	public void calcularImporte(Double precio) {
+		this.importe = BigDecimal.valueOf(precio).multiply(BigDecimal.valueOf(cantidad)).setScale(2, RoundingMode.HALF_UP);
 	}
 
 	public Producto getProducto() {
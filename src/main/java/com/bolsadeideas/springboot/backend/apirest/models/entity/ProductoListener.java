@@ -0,0 +1,34 @@
+package com.bolsadeideas.springboot.backend.apirest.models.entity;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+
+import com.bolsadeideas.springboot.backend.apirest.models.services.ProductoIndiceBusqueda;
+
+// Mantiene actualizado el índice de búsqueda de productos cuando se escribe un producto.
+// Si hay una transacción activa, el cambio se aplica solo cuando se confirma.
+// El índice se inyecta con @Lazy porque Hibernate crea este listener mientras construye
+// el EntityManagerFactory, que el repositorio de productos del índice necesita
+public class ProductoListener {
+
+	@Lazy
+	@Autowired
+	private ProductoIndiceBusqueda productoIndice;
+
+	@PostPersist
+	@PostUpdate
+	public void productoGuardado(Producto producto) {
+		DespuesDeConfirmar.ejecutar(() -> productoIndice.indexar(producto));
+	}
+
+	@PostRemove
+	public void productoEliminado(Producto producto) {
+		Long id = producto.getId();
+		DespuesDeConfirmar.ejecutar(() -> productoIndice.eliminar(id));
+	}
+
+}
@@ -0,0 +1,28 @@
+package com.bolsadeideas.springboot.backend.apirest.models.entity;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+
+import com.bolsadeideas.springboot.backend.apirest.models.services.DatosReferencia;
+
+// Recarga las regiones de los datos de referencia cuando se confirma la modificación de una región.
+// Los datos de referencia se inyectan con @Lazy porque Hibernate crea este listener mientras
+// construye el EntityManagerFactory, que sus repositorios necesitan
+public class RegionListener {
+
+	@Lazy
+	@Autowired
+	private DatosReferencia datosReferencia;
+
+	@PostPersist
+	@PostUpdate
+	@PostRemove
+	public void regionModificada(Region region) {
+		DespuesDeConfirmar.ejecutar(() -> datosReferencia.getRegiones().recargar());
+	}
+
+}
@@ -0,0 +1,35 @@
+package com.bolsadeideas.springboot.backend.apirest.models.entity;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+
+import com.bolsadeideas.springboot.backend.apirest.models.services.DatosReferencia;
+import com.bolsadeideas.springboot.backend.apirest.models.services.UsuarioCache;
+
+// Cuando se confirma la modificación de un rol, invalida la caché de usuarios, ya que puede estar
+// asignado a cualquier usuario, y recarga la lista de roles de los datos de referencia.
+// Los datos de referencia se inyectan con @Lazy, como en RegionListener
+public class RoleListener {
+
+	@Autowired
+	private UsuarioCache usuarioCache;
+
+	@Lazy
+	@Autowired
+	private DatosReferencia datosReferencia;
+
+	@PostPersist
+	@PostUpdate
+	@PostRemove
+	public void roleModificado(Role role) {
+		DespuesDeConfirmar.ejecutar(() -> {
+			usuarioCache.invalidarTodo();
+			datosReferencia.getRoles().recargar();
+		});
+	}
+
+}
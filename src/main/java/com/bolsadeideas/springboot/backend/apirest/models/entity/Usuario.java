@@ -6,6 +6,7 @@ import java.util.List;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -14,9 +15,11 @@ import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.Table;
+import javax.persistence.Transient;
 import javax.persistence.UniqueConstraint;
 
 @Entity
+@EntityListeners(UsuarioListener.class)
 @Table(name = "usuarios")
 public class Usuario implements Serializable {
 
@@ -44,6 +47,11 @@ public class Usuario implements Serializable {
 	uniqueConstraints= {@UniqueConstraint(columnNames= {"usuario_id", "role_id"})})
 	private List<Role> roles;
 
+	// Nombre de usuario con el que se leyó o se guardó por última vez, para que UsuarioListener
+	// invalide también la entrada antigua de la caché cuando cambia
+	@Transient
+	private String usernameConfirmado;
+
 	public Long getId() {
 		return id;
 	}
@@ -108,6 +116,14 @@ public class Usuario implements Serializable {
 		this.email = email;
 	}
 
+	String getUsernameConfirmado() {
+		return usernameConfirmado;
+	}
+
+	void setUsernameConfirmado(String usernameConfirmado) {
+		this.usernameConfirmado = usernameConfirmado;
+	}
+
 	/**
 	 * 
 	 */
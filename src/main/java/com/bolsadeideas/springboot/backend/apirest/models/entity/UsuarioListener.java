@@ -0,0 +1,39 @@
+package com.bolsadeideas.springboot.backend.apirest.models.entity;
+
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.bolsadeideas.springboot.backend.apirest.models.services.UsuarioCache;
+
+// Invalida la caché de usuarios cuando se confirma la modificación de un usuario, también
+// con el nombre anterior si se ha cambiado el nombre de usuario
+public class UsuarioListener {
+
+	@Autowired
+	private UsuarioCache usuarioCache;
+
+	@PostLoad
+	public void usuarioCargado(Usuario usuario) {
+		usuario.setUsernameConfirmado(usuario.getUsername());
+	}
+
+	@PostPersist
+	@PostUpdate
+	@PostRemove
+	public void usuarioModificado(Usuario usuario) {
+		String username = usuario.getUsername();
+		String anterior = usuario.getUsernameConfirmado();
+		usuario.setUsernameConfirmado(username);
+		DespuesDeConfirmar.ejecutar(() -> {
+			usuarioCache.invalidar(username);
+			if (anterior != null && !anterior.equals(username)) {
+				usuarioCache.invalidar(anterior);
+			}
+		});
+	}
+
+}
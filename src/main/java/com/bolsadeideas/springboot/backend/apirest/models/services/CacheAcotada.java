@@ -0,0 +1,152 @@
+package com.bolsadeideas.springboot.backend.apirest.models.services;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Caché en memoria con un número máximo de entradas y caducidad por entrada (un tiempo de
+ * vida común o un instante de expiración explícito). Las lecturas no bloquean y solo anotan
+ * el instante del último acceso: cuando se llena, se quitan las entradas caducadas y, si no
+ * basta, la décima parte de las demás que lleva más tiempo sin usarse (LRU aproximado).
+ * <p>
+ * Para no guardar datos leídos antes de una invalidación, quien carga un valor toma
+ * {@link #version()} antes de leerlo y lo guarda con {@link #guardar(Object, Object, long)}.
+ */
+public class CacheAcotada<K, V> {
+
+	private final int tamanoMaximo;
+
+	private final long ttlMillis;
+
+	private final LongSupplier reloj;
+
+	// Se incrementa en cada invalidación para descartar cargas que empezaron antes
+	private final AtomicLong version = new AtomicLong();
+
+	private final Map<K, Entrada<V>> entradas = new ConcurrentHashMap<>();
+
+	public CacheAcotada(int tamanoMaximo, long ttlMillis) {
+		this(tamanoMaximo, ttlMillis, System::currentTimeMillis);
+	}
+
+	CacheAcotada(int tamanoMaximo, long ttlMillis, LongSupplier reloj) {
+		if (tamanoMaximo < 1) {
+			throw new IllegalArgumentException("El tamaño máximo de la caché debe ser mayor que 0");
+		}
+		this.tamanoMaximo = tamanoMaximo;
+		this.ttlMillis = ttlMillis;
+		this.reloj = reloj;
+	}
+
+	public V obtener(K clave) {
+		Entrada<V> entrada = entradas.get(clave);
+		if (entrada == null) {
+			return null;
+		}
+		long ahora = reloj.getAsLong();
+		if (entrada.expira <= ahora) {
+			entradas.remove(clave, entrada);
+			return null;
+		}
+		entrada.ultimoAcceso = ahora;
+		return entrada.valor;
+	}
+
+	public long version() {
+		return version.get();
+	}
+
+	public void guardar(K clave, V valor) {
+		long ahora = reloj.getAsLong();
+		poner(clave, new Entrada<>(valor, caducidad(ahora), ahora), ahora);
+	}
+
+	// Guarda el valor hasta el instante indicado (en milisegundos), sin aplicar el tiempo de vida común
+	public void guardarHasta(K clave, V valor, long expira) {
+		long ahora = reloj.getAsLong();
+		if (expira > ahora) {
+			poner(clave, new Entrada<>(valor, expira, ahora), ahora);
+		}
+	}
+
+	// Guarda el valor solo si no hubo invalidaciones desde que se empezó a cargar
+	public boolean guardar(K clave, V valor, long versionCarga) {
+		if (versionCarga != version.get()) {
+			return false;
+		}
+		long ahora = reloj.getAsLong();
+		Entrada<V> entrada = new Entrada<>(valor, caducidad(ahora), ahora);
+		poner(clave, entrada, ahora);
+		// Una invalidación entre la comprobación y el put ya no ve esta entrada: se retira aquí
+		if (versionCarga != version.get()) {
+			entradas.remove(clave, entrada);
+			return false;
+		}
+		return true;
+	}
+
+	public void invalidar(K clave) {
+		version.incrementAndGet();
+		entradas.remove(clave);
+	}
+
+	public void invalidarTodo() {
+		version.incrementAndGet();
+		entradas.clear();
+	}
+
+	public int tamano() {
+		return entradas.size();
+	}
+
+	private long caducidad(long ahora) {
+		return ttlMillis > Long.MAX_VALUE - ahora ? Long.MAX_VALUE : ahora + ttlMillis;
+	}
+
+	private void poner(K clave, Entrada<V> entrada, long ahora) {
+		if (entradas.size() >= tamanoMaximo && !entradas.containsKey(clave)) {
+			purgar(ahora);
+		}
+		entradas.put(clave, entrada);
+	}
+
+	// Quita las entradas caducadas y, si la caché sigue llena, el 10% usado hace más tiempo.
+	// Ordenar es O(n log n), pero solo ocurre una vez por cada décima parte de inserciones
+	private void purgar(long ahora) {
+		for (Iterator<Entrada<V>> it = entradas.values().iterator(); it.hasNext();) {
+			if (it.next().expira <= ahora) {
+				it.remove();
+			}
+		}
+		int sobrantes = entradas.size() - tamanoMaximo + Math.max(1, tamanoMaximo / 10);
+		if (sobrantes <= 0) {
+			return;
+		}
+		List<Map.Entry<K, Entrada<V>>> porAcceso = new ArrayList<>(entradas.entrySet());
+		porAcceso.sort(Comparator.comparingLong(e -> e.getValue().ultimoAcceso));
+		for (int i = 0; i < sobrantes && i < porAcceso.size(); i++) {
+			Map.Entry<K, Entrada<V>> menosUsada = porAcceso.get(i);
+			entradas.remove(menosUsada.getKey(), menosUsada.getValue());
+		}
+	}
+
+	private static final class Entrada<V> {
+		private final V valor;
+		private final long expira;
+		// Lo escriben las lecturas sin bloqueos: si dos coinciden, cualquiera de los dos instantes vale
+		private volatile long ultimoAcceso;
+
+		private Entrada(V valor, long expira, long ultimoAcceso) {
+			this.valor = valor;
+			this.expira = expira;
+			this.ultimoAcceso = ultimoAcceso;
+		}
+	}
+
+}
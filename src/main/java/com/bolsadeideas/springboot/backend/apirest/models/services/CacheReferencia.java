@@ -0,0 +1,102 @@
+package com.bolsadeideas.springboot.backend.apirest.models.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.util.DigestUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Copia en memoria de una tabla de datos de referencia (regiones, roles). Cada recarga
+ * crea una instantánea inmutable con la lista, el índice por id y el ETag de su JSON, y
+ * la sustituye de golpe, por lo que las lecturas no necesitan bloqueos.
+ */
+public class CacheReferencia<T> {
+
+	private final Supplier<List<T>> cargador;
+
+	private final Function<T, Long> id;
+
+	private final ObjectMapper objectMapper;
+
+	private volatile Instantanea<T> instantanea;
+
+	public CacheReferencia(Supplier<List<T>> cargador, Function<T, Long> id, ObjectMapper objectMapper) {
+		this.cargador = cargador;
+		this.id = id;
+		this.objectMapper = objectMapper;
+	}
+
+	public synchronized void recargar() {
+		List<T> datos = Collections.unmodifiableList(new ArrayList<>(cargador.get()));
+		Map<Long, T> porId = new LinkedHashMap<>();
+		for (T dato : datos) {
+			porId.put(id.apply(dato), dato);
+		}
+		String etag;
+		try {
+			etag = "\"" + DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(datos)) + "\"";
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("No se pudieron serializar los datos de referencia", e);
+		}
+		instantanea = new Instantanea<>(datos, Collections.unmodifiableMap(porId), etag);
+	}
+
+	public List<T> getTodos() {
+		return instantanea().datos;
+	}
+
+	public T get(Long id) {
+		return id != null ? instantanea().porId.get(id) : null;
+	}
+
+	public boolean contiene(Long id) {
+		return get(id) != null;
+	}
+
+	public String getEtag() {
+		return instantanea().etag;
+	}
+
+	public int size() {
+		return instantanea().datos.size();
+	}
+
+	// Si se consulta antes de la precarga se carga en ese momento
+	private Instantanea<T> instantanea() {
+		Instantanea<T> actual = instantanea;
+		if (actual == null) {
+			synchronized (this) {
+				if (instantanea == null) {
+					recargar();
+				}
+				actual = instantanea;
+			}
+		}
+		return actual;
+	}
+
+	private static class Instantanea<T> {
+
+		private final List<T> datos;
+
+		private final Map<Long, T> porId;
+
+		private final String etag;
+
+		private Instantanea(List<T> datos, Map<Long, T> porId, String etag) {
+			this.datos = datos;
+			this.porId = porId;
+			this.etag = etag;
+		}
+
+	}
+
+}
@@ -0,0 +1,438 @@
+package com.bolsadeideas.springboot.backend.apirest.models.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.bolsadeideas.springboot.backend.apirest.models.dto.RegionDto;
+import com.bolsadeideas.springboot.backend.apirest.models.entity.Cliente;
+import com.bolsadeideas.springboot.backend.apirest.models.entity.Region;
+
+/**
+ * Importación masiva de clientes desde CSV o NDJSON. La entrada se lee en streaming por
+ * lotes: cada lote se valida en paralelo, se descartan los emails repetidos (en el propio
+ * lote o ya existentes, incluidos los de lotes anteriores) y las filas válidas se insertan
+ * con un único batch JDBC por transacción, sin pasar por el contexto de persistencia de
+ * Hibernate. Si la base de datos rechaza el batch, el lote se inserta fila a fila para
+ * rechazar solo las filas que fallan.
+ * <p>
+ * Un archivo que no se puede leer como tal (un CSV sin las columnas obligatorias en la
+ * cabecera o un array JSON en lugar de NDJSON) se rechaza entero con
+ * IllegalArgumentException, antes de importar ninguna fila.
+ */
+@Service
+public class ClienteImportacionServiceImpl implements IClienteImportacionService {
+
+	private final static String SQL_INSERT = "INSERT INTO clientes (nombre, apellido, email, create_at, region_id) VALUES (?, ?, ?, ?, ?)";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+	@Autowired
+	private Validator validator;
+
+	@Autowired
+	private DatosReferencia datosReferencia;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final ThreadPoolExecutor executor;
+
+	private final int hilos;
+
+	@Value("${clientes.importacion.tamano-lote:1000}")
+	private int tamanoLote;
+
+	@Value("${clientes.importacion.maximo-detalle-rechazos:1000}")
+	private int maximoDetalleRechazos;
+
+	public ClienteImportacionServiceImpl(PlatformTransactionManager transactionManager,
+			@Value("${clientes.importacion.hilos:4}") int hilos) {
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.hilos = hilos;
+		AtomicInteger contador = new AtomicInteger();
+		// Si varias importaciones llenan la cola, la validación se hace en el hilo de la petición
+		this.executor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(hilos * 4), r -> {
+					Thread hilo = new Thread(r, "importacion-clientes-" + contador.incrementAndGet());
+					hilo.setDaemon(true);
+					return hilo;
+				}, new ThreadPoolExecutor.CallerRunsPolicy());
+	}
+
+	@PreDestroy
+	public void destroy() {
+		executor.shutdown();
+	}
+
+	@Override
+	public ResultadoImportacion importarCsv(InputStream entrada) throws IOException {
+		BufferedReader lector = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+		String cabecera = lector.readLine();
+		if (cabecera == null) {
+			return new ResultadoImportacion(maximoDetalleRechazos);
+		}
+		if (cabecera.startsWith("\uFEFF")) {
+			cabecera = cabecera.substring(1);
+		}
+		Map<String, Integer> columnas = new HashMap<>();
+		List<String> nombres = separarCsv(cabecera);
+		for (int i = 0; i < nombres.size(); i++) {
+			columnas.put(nombres.get(i).trim().toLowerCase(Locale.ROOT).replace("_", ""), i);
+		}
+		List<String> faltan = new ArrayList<>();
+		for (String obligatoria : Arrays.asList("nombre", "apellido", "email")) {
+			if (!columnas.containsKey(obligatoria)) {
+				faltan.add(obligatoria);
+			}
+		}
+		if (!columnas.containsKey("regionid") && !columnas.containsKey("region")) {
+			faltan.add("region_id");
+		}
+		if (!faltan.isEmpty()) {
+			throw new IllegalArgumentException("Faltan columnas en la cabecera del CSV: " + String.join(", ", faltan));
+		}
+
+		AtomicInteger numeroLinea = new AtomicInteger(1);
+		return importar(() -> {
+			String linea;
+			do {
+				linea = lector.readLine();
+				numeroLinea.incrementAndGet();
+			} while (linea != null && linea.trim().isEmpty());
+			if (linea == null) {
+				return null;
+			}
+			List<String> valores = separarCsv(linea);
+			return crearFila(numeroLinea.get(), columna(valores, columnas, "nombre"),
+					columna(valores, columnas, "apellido"), columna(valores, columnas, "email"),
+					columna(valores, columnas, "createat"), columnaRegion(valores, columnas));
+		});
+	}
+
+	@Override
+	public ResultadoImportacion importarNdjson(InputStream entrada) throws IOException {
+		BufferedReader lector = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+		AtomicInteger numeroLinea = new AtomicInteger();
+		AtomicBoolean primera = new AtomicBoolean(true);
+		return importar(() -> {
+			String linea;
+			do {
+				linea = lector.readLine();
+				numeroLinea.incrementAndGet();
+			} while (linea != null && linea.trim().isEmpty());
+			if (linea == null) {
+				return null;
+			}
+			// Un array JSON es un documento distinto, no una primera fila mal formada
+			if (primera.getAndSet(false) && linea.trim().startsWith("[")) {
+				throw new IllegalArgumentException("El cuerpo debe tener un objeto JSON por línea (NDJSON), no un array");
+			}
+			JsonNode nodo;
+			try {
+				nodo = objectMapper.readTree(linea);
+			} catch (JsonProcessingException e) {
+				return new FilaImportacion(numeroLinea.get(), "JSON mal formado: " + e.getOriginalMessage());
+			}
+			JsonNode region = nodo.path("region");
+			return crearFila(numeroLinea.get(), texto(nodo.path("nombre")), texto(nodo.path("apellido")),
+					texto(nodo.path("email")), texto(nodo.path("createAt")),
+					region.isObject() ? texto(region.path("id")) : texto(region));
+		});
+	}
+
+	private ResultadoImportacion importar(LectorFilas lector) throws IOException {
+		ResultadoImportacion resultado = new ResultadoImportacion(maximoDetalleRechazos);
+		CacheReferencia<RegionDto> regiones = datosReferencia.getRegiones();
+
+		List<FilaImportacion> lote = new ArrayList<>(tamanoLote);
+		FilaImportacion fila;
+		while ((fila = lector.siguiente()) != null) {
+			lote.add(fila);
+			if (lote.size() == tamanoLote) {
+				procesarLote(lote, regiones, resultado);
+				lote.clear();
+			}
+		}
+		if (!lote.isEmpty()) {
+			procesarLote(lote, regiones, resultado);
+		}
+		return resultado;
+	}
+
+	private void procesarLote(List<FilaImportacion> lote, CacheReferencia<RegionDto> regiones,
+			ResultadoImportacion resultado) {
+
+		validarEnParalelo(lote, regiones);
+
+		// Emails repetidos dentro del lote; los de lotes anteriores ya están en la base de datos
+		Set<String> emailsVistos = new HashSet<>();
+		List<FilaImportacion> candidatas = new ArrayList<>(lote.size());
+		for (FilaImportacion fila : lote) {
+			if (fila.errores.isEmpty() && !emailsVistos.add(fila.cliente.getEmail().toLowerCase(Locale.ROOT))) {
+				fila.errores.add("El campo 'email' está repetido en el archivo");
+			}
+			if (fila.errores.isEmpty()) {
+				candidatas.add(fila);
+			}
+		}
+
+		// Emails que ya existen en la base de datos, con una sola consulta por lote
+		if (!candidatas.isEmpty()) {
+			List<String> emails = candidatas.stream().map(f -> f.cliente.getEmail()).collect(Collectors.toList());
+			Set<String> existentes = namedJdbcTemplate
+					.queryForList("select email from clientes where email in (:emails)",
+							Collections.singletonMap("emails", emails), String.class)
+					.stream().map(e -> e.toLowerCase(Locale.ROOT)).collect(Collectors.toSet());
+			if (!existentes.isEmpty()) {
+				candidatas.removeIf(f -> {
+					if (existentes.contains(f.cliente.getEmail().toLowerCase(Locale.ROOT))) {
+						f.errores.add("El campo 'email' ya está registrado");
+						return true;
+					}
+					return false;
+				});
+			}
+		}
+
+		if (!candidatas.isEmpty()) {
+			try {
+				transactionTemplate.execute(status -> insertar(candidatas));
+				resultado.sumarImportados(candidatas.size());
+			} catch (DataAccessException e) {
+				insertarFilaAFila(candidatas, resultado);
+			}
+		}
+
+		for (FilaImportacion f : lote) {
+			if (!f.errores.isEmpty()) {
+				resultado.rechazar(f.linea, f.errores);
+			}
+		}
+	}
+
+	private void validarEnParalelo(List<FilaImportacion> lote, CacheReferencia<RegionDto> regiones) {
+		int porTarea = Math.max(1, (lote.size() + hilos - 1) / hilos);
+		List<Future<?>> tareas = new ArrayList<>();
+		for (int desde = 0; desde < lote.size(); desde += porTarea) {
+			List<FilaImportacion> parte = lote.subList(desde, Math.min(desde + porTarea, lote.size()));
+			Callable<Void> tarea = () -> {
+				parte.forEach(f -> validar(f, regiones));
+				return null;
+			};
+			tareas.add(executor.submit(tarea));
+		}
+		try {
+			for (Future<?> tarea : tareas) {
+				tarea.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Importación interrumpida", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Error al validar el lote", e.getCause());
+		}
+	}
+
+	private void validar(FilaImportacion fila, CacheReferencia<RegionDto> regiones) {
+		if (fila.cliente == null) {
+			return;
+		}
+		for (ConstraintViolation<Cliente> violacion : validator.validate(fila.cliente)) {
+			fila.errores.add("El campo '" + violacion.getPropertyPath() + "' " + violacion.getMessage());
+		}
+		Region region = fila.cliente.getRegion();
+		if (region != null && !regiones.contiene(region.getId())) {
+			fila.errores.add("El campo 'region' no corresponde a ninguna región");
+		}
+	}
+
+	private int[] insertar(List<FilaImportacion> filas) {
+		return jdbcTemplate.batchUpdate(SQL_INSERT, new BatchPreparedStatementSetter() {
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				valores(ps, filas.get(i).cliente);
+			}
+
+			@Override
+			public int getBatchSize() {
+				return filas.size();
+			}
+		});
+	}
+
+	// Cada fila en su propia transacción, para que el error de una no deshaga las demás
+	private void insertarFilaAFila(List<FilaImportacion> filas, ResultadoImportacion resultado) {
+		for (FilaImportacion fila : filas) {
+			try {
+				transactionTemplate.execute(status -> jdbcTemplate.update(SQL_INSERT, ps -> valores(ps, fila.cliente)));
+				resultado.sumarImportados(1);
+			} catch (DuplicateKeyException e) {
+				// Otra petición ha registrado el mismo email después de la comprobación del lote
+				fila.errores.add("El campo 'email' ya está registrado");
+			} catch (DataAccessException e) {
+				fila.errores.add("Error al realizar el insert en la base de datos: " + e.getMostSpecificCause().getMessage());
+			}
+		}
+	}
+
+	private static void valores(PreparedStatement ps, Cliente cliente) throws SQLException {
+		ps.setString(1, cliente.getNombre());
+		ps.setString(2, cliente.getApellido());
+		ps.setString(3, cliente.getEmail());
+		ps.setDate(4, new java.sql.Date(cliente.getCreateAt().getTime()));
+		ps.setLong(5, cliente.getRegion().getId());
+	}
+
+	// Si no se indica la fecha de alta se usa la fecha actual
+	private FilaImportacion crearFila(int linea, String nombre, String apellido, String email, String createAt,
+			String regionId) {
+		Cliente cliente = new Cliente();
+		cliente.setNombre(nombre);
+		cliente.setApellido(apellido);
+		cliente.setEmail(email);
+		if (createAt == null || createAt.isEmpty()) {
+			cliente.setCreateAt(new Date());
+		} else {
+			try {
+				SimpleDateFormat formato = new SimpleDateFormat("yyyy-MM-dd");
+				formato.setLenient(false);
+				cliente.setCreateAt(formato.parse(createAt));
+			} catch (ParseException e) {
+				return new FilaImportacion(linea, "El campo 'createAt' no tiene el formato yyyy-MM-dd");
+			}
+		}
+		if (regionId != null && !regionId.isEmpty()) {
+			try {
+				Region region = new Region();
+				region.setId(Long.valueOf(regionId));
+				cliente.setRegion(region);
+			} catch (NumberFormatException e) {
+				return new FilaImportacion(linea, "El campo 'region' debe ser el id de una región");
+			}
+		}
+		return new FilaImportacion(linea, cliente);
+	}
+
+	private static String texto(JsonNode nodo) {
+		return nodo.isValueNode() && !nodo.isNull() ? nodo.asText().trim() : null;
+	}
+
+	private static String columna(List<String> valores, Map<String, Integer> columnas, String nombre) {
+		Integer indice = columnas.get(nombre);
+		return indice != null && indice < valores.size() ? valores.get(indice).trim() : null;
+	}
+
+	private static String columnaRegion(List<String> valores, Map<String, Integer> columnas) {
+		String region = columna(valores, columnas, "regionid");
+		return region != null ? region : columna(valores, columnas, "region");
+	}
+
+	// Separa una línea CSV respetando los campos entre comillas y las comillas dobles escapadas
+	static List<String> separarCsv(String linea) {
+		List<String> valores = new ArrayList<>();
+		StringBuilder actual = new StringBuilder();
+		boolean entreComillas = false;
+		for (int i = 0; i < linea.length(); i++) {
+			char c = linea.charAt(i);
+			if (entreComillas) {
+				if (c == '"') {
+					if (i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+						actual.append('"');
+						i++;
+					} else {
+						entreComillas = false;
+					}
+				} else {
+					actual.append(c);
+				}
+			} else if (c == '"') {
+				entreComillas = true;
+			} else if (c == ',') {
+				valores.add(actual.toString());
+				actual.setLength(0);
+			} else {
+				actual.append(c);
+			}
+		}
+		valores.add(actual.toString());
+		return valores;
+	}
+
+	@FunctionalInterface
+	private interface LectorFilas {
+		FilaImportacion siguiente() throws IOException;
+	}
+
+	private static class FilaImportacion {
+
+		private final int linea;
+
+		private final Cliente cliente;
+
+		private final List<String> errores = new ArrayList<>();
+
+		FilaImportacion(int linea, Cliente cliente) {
+			this.linea = linea;
+			this.cliente = cliente;
+		}
+
+		FilaImportacion(int linea, String error) {
+			this.linea = linea;
+			this.cliente = null;
+			this.errores.add(error);
+		}
+
+	}
+
+}
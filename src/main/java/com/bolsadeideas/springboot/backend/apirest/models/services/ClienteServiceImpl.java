@@ -1,18 +1,37 @@
 package com.bolsadeideas.springboot.backend.apirest.models.services;
 
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.bolsadeideas.springboot.backend.apirest.models.dao.IClienteDao;
 import com.bolsadeideas.springboot.backend.apirest.models.dao.IFacturaDao;
 import com.bolsadeideas.springboot.backend.apirest.models.dao.IProductoDao;
+import com.bolsadeideas.springboot.backend.apirest.models.dto.ClienteDto;
+import com.bolsadeideas.springboot.backend.apirest.models.dto.FacturaDto;
+import com.bolsadeideas.springboot.backend.apirest.models.dto.FacturaResumen;
+import com.bolsadeideas.springboot.backend.apirest.models.dto.ProductoDto;
+import com.bolsadeideas.springboot.backend.apirest.models.dto.RegionDto;
 import com.bolsadeideas.springboot.backend.apirest.models.entity.Cliente;
 import com.bolsadeideas.springboot.backend.apirest.models.entity.Factura;
+import com.bolsadeideas.springboot.backend.apirest.models.entity.ItemFactura;
 import com.bolsadeideas.springboot.backend.apirest.models.entity.Producto;
 import com.bolsadeideas.springboot.backend.apirest.models.entity.Region;
 
@@ -27,17 +46,76 @@ public class ClienteServiceImpl implements IClienteService {
 	
 	@Autowired
 	private IProductoDao productoDao;
+	
+	@Autowired
+	private ProductoIndiceBusqueda productoIndice;
+	
+	@Autowired
+	private DatosReferencia datosReferencia;
+	
+	@PersistenceContext
+	private EntityManager em;
+	
+	// Número máximo de productos que devuelve el autocompletado
+	@Value("${productos.busqueda.limite:20}")
+	private int limiteBusquedaProductos;
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<ClienteDto> findAll() {
+		return clienteDao.findAllDto();
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Page<ClienteDto> findAll(Pageable pageable) {
+		return clienteDao.findAllDto(pageable);
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public Slice<ClienteDto> findSiguientes(Long ultimoId, Date ultimaFecha, boolean porFecha, int tamano) {
+		// Se pide un registro de más para saber si existe una página siguiente sin ejecutar count(*)
+		Pageable pageable = PageRequest.of(0, tamano + 1);
+		List<ClienteDto> clientes;
+		if (porFecha) {
+			clientes = ultimaFecha == null ? clienteDao.findPrimerosPorFecha(pageable)
+					: clienteDao.findSiguientesPorFecha(ultimaFecha, ultimoId != null ? ultimoId : 0L, pageable);
+		} else {
+			clientes = clienteDao.findSiguientes(ultimoId != null ? ultimoId : 0L, pageable);
+		}
+		boolean hayMas = clientes.size() > tamano;
+		if (hayMas) {
+			clientes = clientes.subList(0, tamano);
+		}
+		return new SliceImpl<>(clientes, PageRequest.of(0, tamano), hayMas);
+	}
 
 	@Override
 	@Transactional(readOnly = true)
-	public List<Cliente> findAll() {
-		return (List<Cliente>) clienteDao.findAll();
+	public long count() {
+		return clienteDao.count();
 	}
 
 	@Override
 	@Transactional(readOnly = true)
-	public Page<Cliente> findAll(Pageable pageable) {
-		return clienteDao.findAll(pageable);
+	public long exportarTodos(int tamanoBloque, Consumer<List<ClienteDto>> consumidor) {
+		// Se recorre la tabla por bloques ordenados por id, entregando cada bloque al
+		// consumidor; los DTO no quedan en el contexto de persistencia, así que la
+		// memoria no crece con el tamaño de la tabla. Devuelve el número de clientes
+		Pageable bloque = PageRequest.of(0, tamanoBloque);
+		Long ultimoId = 0L;
+		long total = 0;
+		List<ClienteDto> clientes;
+		do {
+			clientes = clienteDao.findSiguientes(ultimoId, bloque);
+			if (!clientes.isEmpty()) {
+				consumidor.accept(clientes);
+				total += clientes.size();
+				ultimoId = clientes.get(clientes.size() - 1).getId();
+			}
+		} while (clientes.size() == tamanoBloque);
+		return total;
 	}
 	
 	@Override
@@ -46,9 +124,19 @@ public class ClienteServiceImpl implements IClienteService {
 		return clienteDao.findById(id).orElse(null);
 	}
 
+	@Override
+	@Transactional(readOnly = true)
+	public ClienteDto findClienteDtoById(Long id) {
+		return clienteDao.findDtoById(id);
+	}
+
 	@Override
 	@Transactional
 	public Cliente save(Cliente cliente) {
+		// La región llega solo con su id: se asocia una referencia sin consultarla
+		if (cliente.getRegion() != null && cliente.getRegion().getId() != null) {
+			cliente.setRegion(em.getReference(Region.class, cliente.getRegion().getId()));
+		}
 		return clienteDao.save(cliente);
 	}
 
@@ -60,19 +148,56 @@ public class ClienteServiceImpl implements IClienteService {
 
 	@Override
 	@Transactional(readOnly = true)
-	public List<Region> findAllRegiones() {
-		return clienteDao.findAllRegiones();
+	public List<RegionDto> findAllRegiones() {
+		return datosReferencia.getRegiones().getTodos();
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public FacturaDto findFacturaById(Long id) {
+		// La copia al DTO se hace dentro de la transacción, con la factura cargada en una sola consulta
+		Factura factura = facturaDao.findByIdConItems(id);
+		return factura != null ? new FacturaDto(factura) : null;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Page<FacturaResumen> findFacturasByClienteId(Long clienteId, Pageable pageable) {
+		return facturaDao.findResumenByClienteId(clienteId, pageable);
 	}
 
 	@Override
 	@Transactional(readOnly = true)
-	public Factura findFacturaById(Long id) {
-		return facturaDao.findById(id).orElse(null);
+	public boolean existsById(Long id) {
+		return clienteDao.existsById(id);
 	}
 
 	@Override
 	@Transactional
 	public Factura saveFactura(Factura factura) {
+		// Los errores en los datos recibidos se lanzan como IllegalArgumentException para responder 400
+		for (ItemFactura item : factura.getItems()) {
+			if (item.getProducto() == null || item.getProducto().getId() == null) {
+				throw new IllegalArgumentException("Todos los items de la factura tienen que indicar un producto");
+			}
+			if (item.getCantidad() == null || item.getCantidad() <= 0) {
+				throw new IllegalArgumentException("La cantidad del producto " + item.getProducto().getId() + " tiene que ser mayor que 0");
+			}
+		}
+		// Los importes se calculan con los precios de la base de datos, no con los que envía el cliente,
+		// cargando todos los productos de la factura en una sola consulta
+		Set<Long> ids = factura.getItems().stream().map(item -> item.getProducto().getId()).collect(Collectors.toSet());
+		Map<Long, Producto> productos = new HashMap<>();
+		productoDao.findAllById(ids).forEach(producto -> productos.put(producto.getId(), producto));
+		for (ItemFactura item : factura.getItems()) {
+			Producto producto = productos.get(item.getProducto().getId());
+			if (producto == null) {
+				throw new IllegalArgumentException("El producto " + item.getProducto().getId() + " no existe");
+			}
+			item.setProducto(producto);
+			item.calcularImporte(producto.getPrecio());
+		}
+		factura.calcularTotal();
 		return facturaDao.save(factura);
 	}
 
@@ -83,9 +208,9 @@ public class ClienteServiceImpl implements IClienteService {
 	}
 
 	@Override
-	@Transactional(readOnly = true)
-	public List<Producto> findProductoByNombre(String term) {
-		return productoDao.findByNombreContainingIgnoreCase(term);
+	public List<ProductoDto> findProductoByNombre(String term) {
+		return productoIndice.buscar(term, limiteBusquedaProductos).stream().map(ProductoDto::new)
+				.collect(Collectors.toList());
 	}
 
 }
@@ -0,0 +1,49 @@
+package com.bolsadeideas.springboot.backend.apirest.models.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.bolsadeideas.springboot.backend.apirest.models.dao.IClienteDao;
+import com.bolsadeideas.springboot.backend.apirest.models.dao.IRoleDao;
+import com.bolsadeideas.springboot.backend.apirest.models.dto.RegionDto;
+import com.bolsadeideas.springboot.backend.apirest.models.dto.RoleDto;
+
+/**
+ * Regiones y roles en memoria, precargados al arrancar. Se recargan al modificar una
+ * región o un rol mediante JPA, o a petición de un administrador.
+ */
+@Component
+public class DatosReferencia {
+
+	private static final Logger log = LoggerFactory.getLogger(DatosReferencia.class);
+
+	private final CacheReferencia<RegionDto> regiones;
+
+	private final CacheReferencia<RoleDto> roles;
+
+	public DatosReferencia(IClienteDao clienteDao, IRoleDao roleDao, ObjectMapper objectMapper) {
+		this.regiones = new CacheReferencia<>(clienteDao::findAllRegiones, RegionDto::getId, objectMapper);
+		this.roles = new CacheReferencia<>(roleDao::findAllRoles, RoleDto::getId, objectMapper);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void recargarTodo() {
+		regiones.recargar();
+		roles.recargar();
+		log.info("Datos de referencia cargados: " + regiones.size() + " regiones y " + roles.size() + " roles");
+	}
+
+	public CacheReferencia<RegionDto> getRegiones() {
+		return regiones;
+	}
+
+	public CacheReferencia<RoleDto> getRoles() {
+		return roles;
+	}
+
+}
@@ -0,0 +1,222 @@
+package com.bolsadeideas.springboot.backend.apirest.models.services;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bolsadeideas.springboot.backend.apirest.models.dto.FacturaLote;
+import com.bolsadeideas.springboot.backend.apirest.models.dto.ItemFacturaLote;
+import com.bolsadeideas.springboot.backend.apirest.models.entity.Factura;
+import com.bolsadeideas.springboot.backend.apirest.models.entity.ItemFactura;
+
+/**
+ * Alta de muchas facturas en una sola petición. Los clientes, productos y claves ya usadas
+ * se resuelven con una consulta IN cada uno, y las facturas y sus items se insertan con
+ * batches JDBC en lugar de un insert IDENTITY por entidad, con el importe de cada línea y
+ * el total de cada factura ya calculados. Los ids generados se recuperan con otra consulta
+ * IN por clave de idempotencia, por lo que toda factura lleva una (si el origen no la envía
+ * se genera).
+ */
+@Service
+public class FacturaLoteServiceImpl implements IFacturaLoteService {
+
+	private final static String SQL_INSERT_FACTURA = "INSERT INTO facturas (descripcion, observacion, create_at, cliente_id, clave_idempotencia, total) VALUES (?, ?, ?, ?, ?, ?)";
+
+	private final static String SQL_INSERT_ITEM = "INSERT INTO facturas_items (cantidad, producto_id, factura_id, importe) VALUES (?, ?, ?, ?)";
+
+	@Autowired
+	private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+	@Value("${facturas.lote.tamano-batch:1000}")
+	private int tamanoBatch;
+
+	@Value("${facturas.lote.maximo:5000}")
+	private int maximoFacturas;
+
+	@Override
+	@Transactional
+	public ResultadoLoteFacturas crearFacturas(List<FacturaLote> facturas) {
+		if (facturas.size() > maximoFacturas) {
+			throw new IllegalArgumentException("El lote no puede tener más de " + maximoFacturas + " facturas");
+		}
+		ResultadoLoteFacturas resultado = new ResultadoLoteFacturas();
+
+		// Claves, clientes y productos que aparecen en el lote
+		Set<String> claves = new HashSet<>();
+		Set<Long> clienteIds = new HashSet<>();
+		Set<Long> productoIds = new HashSet<>();
+		for (FacturaLote factura : facturas) {
+			if (factura.getClaveIdempotencia() == null || factura.getClaveIdempotencia().trim().isEmpty()) {
+				factura.setClaveIdempotencia(UUID.randomUUID().toString());
+			}
+			claves.add(factura.getClaveIdempotencia());
+			if (factura.getClienteId() != null) {
+				clienteIds.add(factura.getClienteId());
+			}
+			if (factura.getItems() != null) {
+				for (ItemFacturaLote item : factura.getItems()) {
+					if (item.getProductoId() != null) {
+						productoIds.add(item.getProductoId());
+					}
+				}
+			}
+		}
+
+		Map<String, Long> existentes = idsPorClave(claves);
+		Set<Long> clientes = idsExistentes("select id from clientes where id in (:ids)", clienteIds);
+		Map<Long, Double> precios = preciosPorProducto(productoIds);
+
+		// Se validan las facturas en el orden del lote; las claves repetidas solo se crean una vez
+		Map<String, FacturaLote> nuevas = new LinkedHashMap<>();
+		for (int i = 0; i < facturas.size(); i++) {
+			FacturaLote factura = facturas.get(i);
+			String clave = factura.getClaveIdempotencia();
+			if (existentes.containsKey(clave)) {
+				resultado.duplicada(clave, existentes.get(clave));
+				continue;
+			}
+			if (nuevas.containsKey(clave)) {
+				resultado.rechazar(i + 1, Collections.singletonList("La clave de idempotencia '" + clave + "' está repetida en el lote"));
+				continue;
+			}
+			List<String> errores = validar(factura, clientes, precios.keySet());
+			if (errores.isEmpty()) {
+				nuevas.put(clave, factura);
+			} else {
+				resultado.rechazar(i + 1, errores);
+			}
+		}
+
+		if (nuevas.isEmpty()) {
+			return resultado;
+		}
+
+		// Los importes se calculan con los precios actuales y se guardan en cada línea y en la factura
+		Map<String, List<ItemFactura>> lineas = new HashMap<>();
+		Date hoy = new Date(System.currentTimeMillis());
+		List<Object[]> filasFacturas = new ArrayList<>(nuevas.size());
+		for (FacturaLote factura : nuevas.values()) {
+			Factura calculada = new Factura();
+			for (ItemFacturaLote itemLote : factura.getItems()) {
+				ItemFactura item = new ItemFactura();
+				item.setCantidad(itemLote.getCantidad());
+				item.calcularImporte(precios.get(itemLote.getProductoId()));
+				calculada.getItems().add(item);
+			}
+			calculada.calcularTotal();
+			lineas.put(factura.getClaveIdempotencia(), calculada.getItems());
+			filasFacturas.add(new Object[] { factura.getDescripcion(), factura.getObservacion(), hoy,
+					factura.getClienteId(), factura.getClaveIdempotencia(), calculada.getTotal() });
+		}
+		batch(SQL_INSERT_FACTURA, filasFacturas);
+
+		Map<String, Long> creadas = idsPorClave(nuevas.keySet());
+		List<Object[]> filasItems = new ArrayList<>();
+		for (FacturaLote factura : nuevas.values()) {
+			Long facturaId = creadas.get(factura.getClaveIdempotencia());
+			List<ItemFactura> items = lineas.get(factura.getClaveIdempotencia());
+			for (int i = 0; i < items.size(); i++) {
+				filasItems.add(new Object[] { items.get(i).getCantidad(), factura.getItems().get(i).getProductoId(),
+						facturaId, items.get(i).getImporte() });
+			}
+			resultado.creada(factura.getClaveIdempotencia(), facturaId);
+		}
+		batch(SQL_INSERT_ITEM, filasItems);
+
+		return resultado;
+	}
+
+	private List<String> validar(FacturaLote factura, Set<Long> clientes, Set<Long> productos) {
+		List<String> errores = new ArrayList<>();
+		if (factura.getClaveIdempotencia().length() > 64) {
+			errores.add("La clave de idempotencia no puede tener más de 64 caracteres");
+		}
+		if (factura.getClienteId() == null || !clientes.contains(factura.getClienteId())) {
+			errores.add("El cliente " + factura.getClienteId() + " no existe");
+		}
+		if (factura.getItems() == null || factura.getItems().isEmpty()) {
+			errores.add("La factura no tiene items");
+			return errores;
+		}
+		for (ItemFacturaLote item : factura.getItems()) {
+			if (item.getProductoId() == null || !productos.contains(item.getProductoId())) {
+				errores.add("El producto " + item.getProductoId() + " no existe");
+			}
+			if (item.getCantidad() == null || item.getCantidad() <= 0) {
+				errores.add("La cantidad del producto " + item.getProductoId() + " tiene que ser mayor que 0");
+			}
+		}
+		return errores;
+	}
+
+	private Map<String, Long> idsPorClave(Collection<String> claves) {
+		Map<String, Long> ids = new HashMap<>();
+		for (List<Object> parte : partes(claves)) {
+			namedJdbcTemplate.query("select id, clave_idempotencia from facturas where clave_idempotencia in (:claves)",
+					Collections.singletonMap("claves", parte),
+					rs -> {
+						ids.put(rs.getString(2), rs.getLong(1));
+					});
+		}
+		return ids;
+	}
+
+	private Set<Long> idsExistentes(String sql, Collection<Long> ids) {
+		Set<Long> existentes = new HashSet<>();
+		for (List<Object> parte : partes(ids)) {
+			existentes.addAll(namedJdbcTemplate.queryForList(sql, Collections.singletonMap("ids", parte), Long.class));
+		}
+		return existentes;
+	}
+
+	private Map<Long, Double> preciosPorProducto(Collection<Long> ids) {
+		Map<Long, Double> precios = new HashMap<>();
+		for (List<Object> parte : partes(ids)) {
+			namedJdbcTemplate.query("select id, precio from productos where id in (:ids)",
+					Collections.singletonMap("ids", parte),
+					rs -> {
+						precios.put(rs.getLong(1), rs.getDouble(2));
+					});
+		}
+		return precios;
+	}
+
+	// Divide los parámetros de las consultas IN en bloques del tamaño del batch
+	private List<List<Object>> partes(Collection<?> valores) {
+		List<List<Object>> partes = new ArrayList<>();
+		List<Object> actual = new ArrayList<>();
+		for (Object valor : valores) {
+			actual.add(valor);
+			if (actual.size() == tamanoBatch) {
+				partes.add(actual);
+				actual = new ArrayList<>();
+			}
+		}
+		if (!actual.isEmpty()) {
+			partes.add(actual);
+		}
+		return partes;
+	}
+
+	private void batch(String sql, List<Object[]> filas) {
+		for (int desde = 0; desde < filas.size(); desde += tamanoBatch) {
+			namedJdbcTemplate.getJdbcOperations().batchUpdate(sql,
+					filas.subList(desde, Math.min(desde + tamanoBatch, filas.size())));
+		}
+	}
+
+}
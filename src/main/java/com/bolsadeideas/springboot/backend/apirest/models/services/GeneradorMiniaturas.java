@@ -0,0 +1,203 @@
+package com.bolsadeideas.springboot.backend.apirest.models.services;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import javax.annotation.PreDestroy;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Genera en segundo plano versiones reducidas de las fotos subidas (por ejemplo de 64 y
+ * 256 píxeles) para que los listados no descarguen el original. Si una miniatura todavía
+ * no existe o no se pudo generar, se sirve la imagen original.
+ * <p>
+ * Las fotos se decodifican con un máximo de píxeles: una imagen de pocos KB en disco puede
+ * ocupar gigas al descomprimirla, así que las más grandes se leen submuestreadas.
+ */
+@Component
+public class GeneradorMiniaturas {
+
+	private final Logger log = LoggerFactory.getLogger(GeneradorMiniaturas.class);
+
+	private final int[] tamanos;
+
+	private final ThreadPoolExecutor executor;
+
+	private final long pixelesMaximos;
+
+	public GeneradorMiniaturas(@Value("${uploads.miniaturas.tamanos:64,256}") int[] tamanos,
+			@Value("${uploads.miniaturas.hilos:2}") int hilos, @Value("${uploads.miniaturas.cola:100}") int cola,
+			@Value("${uploads.miniaturas.pixeles-maximos:4000000}") long pixelesMaximos) {
+		this.pixelesMaximos = pixelesMaximos;
+		this.tamanos = tamanos.clone();
+		Arrays.sort(this.tamanos);
+		AtomicInteger contador = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(cola),
+				r -> {
+					Thread hilo = new Thread(r, "miniaturas-" + contador.incrementAndGet());
+					hilo.setDaemon(true);
+					return hilo;
+				});
+	}
+
+	@PreDestroy
+	public void destroy() {
+		executor.shutdown();
+	}
+
+	// Tamaño de miniatura más pequeño que cubre el pedido, o 0 si hay que servir el original
+	public int tamanoParaPeticion(int pedido) {
+		for (int tamano : tamanos) {
+			if (tamano >= pedido) {
+				return tamano;
+			}
+		}
+		return 0;
+	}
+
+	public int[] getTamanos() {
+		return tamanos.clone();
+	}
+
+	// destino devuelve la ruta de la miniatura para cada tamaño
+	public void generar(Path original, IntFunction<Path> destino) {
+		try {
+			executor.execute(() -> {
+				try {
+					generarAhora(original, destino);
+				} catch (IOException | RuntimeException e) {
+					log.warn("No se pudieron generar las miniaturas de " + original.getFileName() + ": " + e.getMessage());
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			log.warn("Cola de miniaturas llena, se servirá el original de " + original.getFileName());
+		}
+	}
+
+	void generarAhora(Path original, IntFunction<Path> destinoPorTamano) throws IOException {
+		String nombre = original.getFileName().toString();
+		String formato = formato(nombre);
+		if (formato == null) {
+			return;
+		}
+
+		BufferedImage imagen = null;
+		for (int tamano : tamanos) {
+			Path destino = destinoPorTamano.apply(tamano);
+			// Una imagen repetida ya tiene sus miniaturas
+			if (Files.exists(destino)) {
+				continue;
+			}
+			if (imagen == null) {
+				imagen = leer(original);
+				if (imagen == null) {
+					return;
+				}
+			}
+			// JPEG y BMP no guardan transparencia; PNG y GIF la conservan si el original la tiene
+			boolean alfa = imagen.getColorModel().hasAlpha() && ("png".equals(formato) || "gif".equals(formato));
+			Files.createDirectories(destino.getParent());
+			Path temporal = Files.createTempFile(destino.getParent(), ".", ".tmp");
+			try {
+				if (!ImageIO.write(reducir(imagen, tamano, alfa), formato, temporal.toFile())) {
+					throw new IOException("No se puede escribir la miniatura en formato " + formato);
+				}
+				Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(temporal);
+			}
+		}
+	}
+
+	// Lee las dimensiones de la cabecera y, si la imagen pasa de pixelesMaximos, la decodifica
+	// tomando uno de cada n píxeles en cada eje, sin cargar nunca la imagen completa en memoria
+	BufferedImage leer(Path original) throws IOException {
+		try (ImageInputStream entrada = ImageIO.createImageInputStream(original.toFile())) {
+			Iterator<ImageReader> lectores = entrada == null ? null : ImageIO.getImageReaders(entrada);
+			if (lectores == null || !lectores.hasNext()) {
+				return null;
+			}
+			ImageReader lector = lectores.next();
+			try {
+				lector.setInput(entrada, true, true);
+				long pixeles = (long) lector.getWidth(0) * lector.getHeight(0);
+				ImageReadParam parametros = lector.getDefaultReadParam();
+				if (pixeles > pixelesMaximos) {
+					int paso = (int) Math.ceil(Math.sqrt((double) pixeles / pixelesMaximos));
+					parametros.setSourceSubsampling(paso, paso, 0, 0);
+				}
+				return lector.read(0, parametros);
+			} finally {
+				lector.dispose();
+			}
+		}
+	}
+
+	// Reduce la imagen a la mitad en varios pasos hasta llegar al tamaño final, que con
+	// interpolación bilineal da mejor calidad que un único escalado grande
+	private static BufferedImage reducir(BufferedImage imagen, int tamano, boolean alfa) {
+		int lado = Math.max(imagen.getWidth(), imagen.getHeight());
+		if (lado <= tamano) {
+			return imagen;
+		}
+		int ancho = Math.max(1, imagen.getWidth() * tamano / lado);
+		int alto = Math.max(1, imagen.getHeight() * tamano / lado);
+		int tipo = alfa ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+		BufferedImage actual = imagen;
+		int w = imagen.getWidth();
+		int h = imagen.getHeight();
+		do {
+			w = Math.max(ancho, w / 2);
+			h = Math.max(alto, h / 2);
+			BufferedImage paso = new BufferedImage(w, h, tipo);
+			Graphics2D g = paso.createGraphics();
+			g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			g.drawImage(actual, 0, 0, w, h, null);
+			g.dispose();
+			actual = paso;
+		} while (w != ancho || h != alto);
+		return actual;
+	}
+
+	private static String formato(String nombre) {
+		String extension = nombre.substring(nombre.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+		switch (extension) {
+		case "jpg":
+		case "jpeg":
+			return "jpg";
+		case "png":
+			return "png";
+		case "gif":
+			return "gif";
+		case "bmp":
+			return "bmp";
+		default:
+			return null;
+		}
+	}
+
+}
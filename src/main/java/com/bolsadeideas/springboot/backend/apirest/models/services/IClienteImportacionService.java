@@ -0,0 +1,12 @@
+package com.bolsadeideas.springboot.backend.apirest.models.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface IClienteImportacionService {
+
+	public ResultadoImportacion importarCsv(InputStream entrada) throws IOException;
+	
+	public ResultadoImportacion importarNdjson(InputStream entrada) throws IOException;
+
+}
@@ -1,35 +1,53 @@
 package com.bolsadeideas.springboot.backend.apirest.models.services;
 
+import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import com.bolsadeideas.springboot.backend.apirest.models.dto.ClienteDto;
+import com.bolsadeideas.springboot.backend.apirest.models.dto.FacturaDto;
+import com.bolsadeideas.springboot.backend.apirest.models.dto.FacturaResumen;
+import com.bolsadeideas.springboot.backend.apirest.models.dto.ProductoDto;
+import com.bolsadeideas.springboot.backend.apirest.models.dto.RegionDto;
 import com.bolsadeideas.springboot.backend.apirest.models.entity.Cliente;
 import com.bolsadeideas.springboot.backend.apirest.models.entity.Factura;
-import com.bolsadeideas.springboot.backend.apirest.models.entity.Producto;
-import com.bolsadeideas.springboot.backend.apirest.models.entity.Region;
 
 public interface IClienteService {
 
-	public List<Cliente> findAll();
+	public List<ClienteDto> findAll();
 	
-	public Page<Cliente> findAll(Pageable pageable);
+	public Page<ClienteDto> findAll(Pageable pageable);
+	
+	public Slice<ClienteDto> findSiguientes(Long ultimoId, Date ultimaFecha, boolean porFecha, int tamano);
+	
+	public long count();
+	
+	public long exportarTodos(int tamanoBloque, Consumer<List<ClienteDto>> consumidor);
 	
 	public Cliente findById(Long id);
 	
+	public ClienteDto findClienteDtoById(Long id);
+	
 	public Cliente save(Cliente cliente);
 	
 	public void delete(Long id);
 	
-	public List<Region> findAllRegiones();
+	public List<RegionDto> findAllRegiones();
+	
+	public FacturaDto findFacturaById(Long id);
+	
+	public Page<FacturaResumen> findFacturasByClienteId(Long clienteId, Pageable pageable);
 	
-	public Factura findFacturaById(Long id);
+	public boolean existsById(Long id);
 	
 	public Factura saveFactura(Factura factura);
 	
 	public void deleteFacturaById(Long id);
 	
-	public List<Producto> findProductoByNombre(String term);
+	public List<ProductoDto> findProductoByNombre(String term);
 
 }
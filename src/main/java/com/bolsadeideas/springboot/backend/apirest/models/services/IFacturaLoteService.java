@@ -0,0 +1,11 @@
+package com.bolsadeideas.springboot.backend.apirest.models.services;
+
+import java.util.List;
+
+import com.bolsadeideas.springboot.backend.apirest.models.dto.FacturaLote;
+
+public interface IFacturaLoteService {
+
+	public ResultadoLoteFacturas crearFacturas(List<FacturaLote> facturas);
+
+}
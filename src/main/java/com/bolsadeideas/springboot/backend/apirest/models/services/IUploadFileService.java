@@ -12,5 +12,7 @@ public interface IUploadFileService {
 	public Resource cargar(String nombreFoto) throws MalformedURLException;
 	public String copiar(MultipartFile archivo) throws IOException;
 	public boolean eliminar(String nombreFoto);
+	public void eliminarDiferido(String nombreFoto);
 	public Path getPath(String nombreFoto);
+	public Path getPathMiniatura(String nombreFoto, int tamano);
 }
@@ -1,8 +1,8 @@
 package com.bolsadeideas.springboot.backend.apirest.models.services;
 
-import com.bolsadeideas.springboot.backend.apirest.models.entity.Usuario;
+import com.bolsadeideas.springboot.backend.apirest.models.dto.UsuarioDto;
 
 public interface IUsuarioService {
 
-	public Usuario findByUsername(String username);
+	public UsuarioDto findByUsername(String username);
 }
@@ -0,0 +1,74 @@
+package com.bolsadeideas.springboot.backend.apirest.models.services;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Métricas de las imágenes de clientes, compartidas por el servicio de uploads y por el
+ * controlador que las sirve: uploads.bytes cuenta los bytes subidos y descargados, y
+ * uploads.cache los aciertos y fallos de la caché negativa, de las miniaturas y del
+ * navegador (respuestas 304).
+ */
+@Component
+public class MetricasUploads {
+
+	private final Counter bytesSubidos;
+
+	private final Counter bytesDescargados;
+
+	private final Counter faltantesAciertos;
+
+	private final Counter faltantesFallos;
+
+	private final Counter miniaturasAciertos;
+
+	private final Counter miniaturasFallos;
+
+	private final Counter navegadorAciertos;
+
+	private final Counter navegadorFallos;
+
+	public MetricasUploads(MeterRegistry registry) {
+		bytesSubidos = bytes(registry, "subida");
+		bytesDescargados = bytes(registry, "descarga");
+		faltantesAciertos = cache(registry, "faltantes", "acierto");
+		faltantesFallos = cache(registry, "faltantes", "fallo");
+		miniaturasAciertos = cache(registry, "miniaturas", "acierto");
+		miniaturasFallos = cache(registry, "miniaturas", "fallo");
+		navegadorAciertos = cache(registry, "navegador", "acierto");
+		navegadorFallos = cache(registry, "navegador", "fallo");
+	}
+
+	public void subidos(long bytes) {
+		bytesSubidos.increment(bytes);
+	}
+
+	public void descargados(long bytes) {
+		bytesDescargados.increment(bytes);
+	}
+
+	public void faltantes(boolean acierto) {
+		(acierto ? faltantesAciertos : faltantesFallos).increment();
+	}
+
+	public void miniaturas(boolean acierto) {
+		(acierto ? miniaturasAciertos : miniaturasFallos).increment();
+	}
+
+	public void navegador(boolean acierto) {
+		(acierto ? navegadorAciertos : navegadorFallos).increment();
+	}
+
+	private static Counter bytes(MeterRegistry registry, String operacion) {
+		return Counter.builder("uploads.bytes").description("Bytes de imágenes transferidos").baseUnit("bytes")
+				.tag("operacion", operacion).register(registry);
+	}
+
+	private static Counter cache(MeterRegistry registry, String cache, String resultado) {
+		return Counter.builder("uploads.cache").description("Consultas a las cachés de imágenes")
+				.tag("cache", cache).tag("resultado", resultado).register(registry);
+	}
+
+}
@@ -0,0 +1,297 @@
+package com.bolsadeideas.springboot.backend.apirest.models.services;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bolsadeideas.springboot.backend.apirest.models.dao.IProductoDao;
+import com.bolsadeideas.springboot.backend.apirest.models.entity.Producto;
+
+/**
+ * Índice invertido de trigramas sobre el nombre de los productos. Cada trigrama
+ * apunta a una lista ordenada de documentos (int[]) y la búsqueda intersecta las
+ * listas de los trigramas del término antes de comprobar cada candidato. Los nombres
+ * se normalizan sin acentos y en minúsculas para que "camara" encuentre "Cámara".
+ */
+@Component
+public class ProductoIndiceBusqueda {
+
+	private static final Logger log = LoggerFactory.getLogger(ProductoIndiceBusqueda.class);
+
+	private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+
+	@Autowired
+	private IProductoDao productoDao;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	// Documentos del índice: la posición es el número de documento de las listas
+	private Producto[] documentos = new Producto[64];
+	private String[] nombres = new String[64];
+	private int numeroDocumentos;
+
+	// Documentos sustituidos o eliminados, pendientes de compactar
+	private BitSet borrados = new BitSet();
+	private int numeroBorrados;
+
+	private Map<Long, Integer> documentoPorId = new HashMap<>();
+
+	private Map<Long, Postings> postings = new HashMap<>();
+
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional(readOnly = true)
+	public void construir() {
+		List<Producto> productos = new ArrayList<>();
+		productoDao.findAll().forEach(productos::add);
+		reconstruir(productos);
+		log.info("Índice de productos construido con " + productos.size() + " productos");
+	}
+
+	public List<Producto> buscar(String term, int limite) {
+		String consulta = normalizar(term);
+		if (consulta.isEmpty() || limite <= 0) {
+			return Collections.emptyList();
+		}
+
+		lock.readLock().lock();
+		try {
+			List<Resultado> resultados = new ArrayList<>();
+			if (consulta.length() < 3) {
+				// Con menos de tres caracteres no hay trigramas: se recorren los nombres
+				for (int doc = 0; doc < numeroDocumentos; doc++) {
+					comprobar(doc, consulta, resultados);
+				}
+			} else {
+				int[] candidatos = candidatos(consulta);
+				for (int i = 0; i < candidatos.length; i++) {
+					comprobar(candidatos[i], consulta, resultados);
+				}
+			}
+
+			Collections.sort(resultados);
+			List<Producto> productos = new ArrayList<>(Math.min(limite, resultados.size()));
+			for (int i = 0; i < resultados.size() && i < limite; i++) {
+				productos.add(resultados.get(i).producto);
+			}
+			return productos;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public void indexar(Producto producto) {
+		if (producto.getId() == null) {
+			return;
+		}
+		lock.writeLock().lock();
+		try {
+			borrar(producto.getId());
+			agregar(producto);
+			compactarSiHaceFalta();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void eliminar(Long id) {
+		lock.writeLock().lock();
+		try {
+			borrar(id);
+			compactarSiHaceFalta();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void reconstruir(List<Producto> productos) {
+		lock.writeLock().lock();
+		try {
+			documentos = new Producto[Math.max(64, productos.size())];
+			nombres = new String[documentos.length];
+			numeroDocumentos = 0;
+			borrados = new BitSet();
+			numeroBorrados = 0;
+			documentoPorId = new HashMap<>();
+			postings = new HashMap<>();
+			for (Producto producto : productos) {
+				agregar(producto);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	static String normalizar(String texto) {
+		if (texto == null) {
+			return "";
+		}
+		String sinAcentos = DIACRITICOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+		return sinAcentos.toLowerCase(Locale.ROOT).trim();
+	}
+
+	private void comprobar(int doc, String consulta, List<Resultado> resultados) {
+		if (borrados.get(doc)) {
+			return;
+		}
+		String nombre = nombres[doc];
+		int posicion = nombre.indexOf(consulta);
+		if (posicion >= 0) {
+			boolean inicioPalabra = posicion == 0 || !Character.isLetterOrDigit(nombre.charAt(posicion - 1));
+			resultados.add(new Resultado(documentos[doc], nombre, posicion, inicioPalabra));
+		}
+	}
+
+	private int[] candidatos(String consulta) {
+		// Se ordenan las listas de menor a mayor para que la intersección sea lo más corta posible
+		long[] trigramas = trigramas(consulta);
+		Postings[] listas = new Postings[trigramas.length];
+		for (int i = 0; i < trigramas.length; i++) {
+			listas[i] = postings.get(trigramas[i]);
+			if (listas[i] == null) {
+				return new int[0];
+			}
+		}
+		Arrays.sort(listas, (a, b) -> Integer.compare(a.tamano, b.tamano));
+
+		int[] resultado = Arrays.copyOf(listas[0].docs, listas[0].tamano);
+		int tamano = resultado.length;
+		for (int i = 1; i < listas.length && tamano > 0; i++) {
+			tamano = intersectar(resultado, tamano, listas[i]);
+		}
+		return Arrays.copyOf(resultado, tamano);
+	}
+
+	private static int intersectar(int[] resultado, int tamano, Postings lista) {
+		int i = 0, j = 0, k = 0;
+		while (i < tamano && j < lista.tamano) {
+			if (resultado[i] < lista.docs[j]) {
+				i++;
+			} else if (resultado[i] > lista.docs[j]) {
+				j++;
+			} else {
+				resultado[k++] = resultado[i];
+				i++;
+				j++;
+			}
+		}
+		return k;
+	}
+
+	private void agregar(Producto producto) {
+		if (numeroDocumentos == documentos.length) {
+			documentos = Arrays.copyOf(documentos, numeroDocumentos * 2);
+			nombres = Arrays.copyOf(nombres, numeroDocumentos * 2);
+		}
+		int doc = numeroDocumentos++;
+		String nombre = normalizar(producto.getNombre());
+		documentos[doc] = producto;
+		nombres[doc] = nombre;
+		documentoPorId.put(producto.getId(), doc);
+		// Los documentos se numeran en orden creciente, así que las listas quedan ordenadas
+		for (long trigrama : trigramas(nombre)) {
+			postings.computeIfAbsent(trigrama, t -> new Postings()).agregar(doc);
+		}
+	}
+
+	private void borrar(Long id) {
+		Integer doc = documentoPorId.remove(id);
+		if (doc != null) {
+			borrados.set(doc);
+			numeroBorrados++;
+		}
+	}
+
+	private void compactarSiHaceFalta() {
+		if (numeroBorrados > 64 && numeroBorrados > numeroDocumentos / 2) {
+			List<Producto> vivos = new ArrayList<>(numeroDocumentos - numeroBorrados);
+			for (int doc = 0; doc < numeroDocumentos; doc++) {
+				if (!borrados.get(doc)) {
+					vivos.add(documentos[doc]);
+				}
+			}
+			reconstruir(vivos);
+		}
+	}
+
+	// Cada trigrama se codifica en un long con los tres caracteres de 16 bits
+	private static long[] trigramas(String texto) {
+		if (texto.length() < 3) {
+			return new long[0];
+		}
+		long[] trigramas = new long[texto.length() - 2];
+		for (int i = 0; i < trigramas.length; i++) {
+			trigramas[i] = ((long) texto.charAt(i) << 32) | ((long) texto.charAt(i + 1) << 16) | texto.charAt(i + 2);
+		}
+		Arrays.sort(trigramas);
+		int unicos = 0;
+		for (int i = 0; i < trigramas.length; i++) {
+			if (i == 0 || trigramas[i] != trigramas[i - 1]) {
+				trigramas[unicos++] = trigramas[i];
+			}
+		}
+		return Arrays.copyOf(trigramas, unicos);
+	}
+
+	private static final class Postings {
+		private int[] docs = new int[4];
+		private int tamano;
+
+		private void agregar(int doc) {
+			if (tamano == docs.length) {
+				docs = Arrays.copyOf(docs, tamano * 2);
+			}
+			docs[tamano++] = doc;
+		}
+	}
+
+	// Orden de relevancia: coincidencia al inicio del nombre, al inicio de una palabra,
+	// posición más temprana y nombre más corto
+	private static final class Resultado implements Comparable<Resultado> {
+		private final Producto producto;
+		private final String nombre;
+		private final int posicion;
+		private final boolean inicioPalabra;
+
+		private Resultado(Producto producto, String nombre, int posicion, boolean inicioPalabra) {
+			this.producto = producto;
+			this.nombre = nombre;
+			this.posicion = posicion;
+			this.inicioPalabra = inicioPalabra;
+		}
+
+		@Override
+		public int compareTo(Resultado otro) {
+			if ((posicion == 0) != (otro.posicion == 0)) {
+				return posicion == 0 ? -1 : 1;
+			}
+			if (inicioPalabra != otro.inicioPalabra) {
+				return inicioPalabra ? -1 : 1;
+			}
+			if (posicion != otro.posicion) {
+				return Integer.compare(posicion, otro.posicion);
+			}
+			if (nombre.length() != otro.nombre.length()) {
+				return Integer.compare(nombre.length(), otro.nombre.length());
+			}
+			return nombre.compareTo(otro.nombre);
+		}
+	}
+
+}
@@ -0,0 +1,68 @@
+package com.bolsadeideas.springboot.backend.apirest.models.services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resumen de una importación masiva: filas importadas, filas rechazadas y el motivo de
+ * cada rechazo (solo se detallan los primeros para que la respuesta no crezca sin límite).
+ */
+public class ResultadoImportacion {
+
+	private final int maximoDetalle;
+
+	private int importados;
+
+	private int rechazados;
+
+	private final List<Rechazo> errores = new ArrayList<>();
+
+	public ResultadoImportacion(int maximoDetalle) {
+		this.maximoDetalle = maximoDetalle;
+	}
+
+	void sumarImportados(int cantidad) {
+		importados += cantidad;
+	}
+
+	void rechazar(int linea, List<String> motivos) {
+		rechazados++;
+		if (errores.size() < maximoDetalle) {
+			errores.add(new Rechazo(linea, motivos));
+		}
+	}
+
+	public int getImportados() {
+		return importados;
+	}
+
+	public int getRechazados() {
+		return rechazados;
+	}
+
+	public List<Rechazo> getErrores() {
+		return errores;
+	}
+
+	public static class Rechazo {
+
+		private final int linea;
+
+		private final List<String> errores;
+
+		public Rechazo(int linea, List<String> errores) {
+			this.linea = linea;
+			this.errores = errores;
+		}
+
+		public int getLinea() {
+			return linea;
+		}
+
+		public List<String> getErrores() {
+			return errores;
+		}
+
+	}
+
+}
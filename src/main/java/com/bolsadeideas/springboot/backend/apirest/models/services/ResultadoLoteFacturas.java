@@ -0,0 +1,86 @@
+package com.bolsadeideas.springboot.backend.apirest.models.services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.bolsadeideas.springboot.backend.apirest.models.services.ResultadoImportacion.Rechazo;
+
+/**
+ * Resultado de una carga de facturas por lotes. Para cada factura aceptada se devuelve su
+ * id junto a la clave de idempotencia; las que ya existían se informan como duplicadas con
+ * el id original, de modo que reenviar el mismo lote es seguro.
+ */
+public class ResultadoLoteFacturas {
+
+	private int creadas;
+
+	private int duplicadas;
+
+	private final List<FacturaCreada> facturas = new ArrayList<>();
+
+	private final List<Rechazo> errores = new ArrayList<>();
+
+	void creada(String clave, Long id) {
+		creadas++;
+		facturas.add(new FacturaCreada(clave, id, false));
+	}
+
+	void duplicada(String clave, Long id) {
+		duplicadas++;
+		facturas.add(new FacturaCreada(clave, id, true));
+	}
+
+	// posicion es la posición de la factura en el lote, empezando por 1
+	void rechazar(int posicion, List<String> motivos) {
+		errores.add(new Rechazo(posicion, motivos));
+	}
+
+	public int getCreadas() {
+		return creadas;
+	}
+
+	public int getDuplicadas() {
+		return duplicadas;
+	}
+
+	public int getRechazadas() {
+		return errores.size();
+	}
+
+	public List<FacturaCreada> getFacturas() {
+		return facturas;
+	}
+
+	public List<Rechazo> getErrores() {
+		return errores;
+	}
+
+	public static class FacturaCreada {
+
+		private final String claveIdempotencia;
+
+		private final Long id;
+
+		private final boolean duplicada;
+
+		public FacturaCreada(String claveIdempotencia, Long id, boolean duplicada) {
+			this.claveIdempotencia = claveIdempotencia;
+			this.id = id;
+			this.duplicada = duplicada;
+		}
+
+		public String getClaveIdempotencia() {
+			return claveIdempotencia;
+		}
+
+		public Long getId() {
+			return id;
+		}
+
+		public boolean isDuplicada() {
+			return duplicada;
+		}
+
+	}
+
+}
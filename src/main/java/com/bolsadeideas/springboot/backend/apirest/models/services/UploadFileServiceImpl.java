@@ -1,77 +1,336 @@
 package com.bolsadeideas.springboot.backend.apirest.models.services;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.bolsadeideas.springboot.backend.apirest.models.dao.IClienteDao;
+
+
+/**
+ * Almacén de imágenes direccionado por contenido: cada archivo se nombra con el SHA-256
+ * de sus bytes, calculado mientras se escribe, de modo que subir dos veces la misma
+ * imagen solo la guarda una vez. Los archivos se reparten en subdirectorios según los
+ * primeros caracteres del hash (uploads/ab/cd/abcd...png) y solo se borran cuando ningún
+ * cliente los usa. Los nombres antiguos (UUID_nombre) se siguen resolviendo en uploads.
+ * Las imágenes que no existen se recuerdan durante un tiempo y se responden con la
+ * imagen por defecto en memoria, sin volver a consultar el disco.
+ */
 @Service
 public class UploadFileServiceImpl implements IUploadFileService{
 	
 	private final Logger log = LoggerFactory.getLogger(UploadFileServiceImpl.class);
 	
-	private final static String DIRECTORIO_UPLOAD = "uploads";
+	// Directorio de trabajo dentro de uploads para que el move final sea atómico
+	private final static String DIRECTORIO_TEMPORAL = ".tmp";
+	
+	// Directorio de las miniaturas, con un subdirectorio por tamaño
+	private final static String DIRECTORIO_MINIATURAS = "miniaturas";
+	
+	private final static Pattern NOMBRE_HASH = Pattern.compile("[0-9a-f]{64}(\\.[a-z0-9]{1,5})?");
+	
+	private final static Pattern EXTENSION = Pattern.compile("[a-z0-9]{1,5}");
+	
+	private final static int TAMANO_BUFFER = 64 * 1024;
+	
+	private final static int NUMERO_CERROJOS = 64;
+	
+	private final static String NOMBRE_IMAGEN_POR_DEFECTO = "no-usuario.png";
+	
+	private final static String IMAGEN_POR_DEFECTO = "static/images/" + NOMBRE_IMAGEN_POR_DEFECTO;
+	
+	@Autowired
+	private GeneradorMiniaturas generadorMiniaturas;
+	
+	@Autowired
+	private IClienteDao clienteDao;
+	
+	@Autowired
+	private MetricasUploads metricasUploads;
+	
+	// Imágenes recién subidas con el instante hasta el que no se pueden borrar; cada reserva se
+	// quita en el limpiador cuando caduca
+	private final Map<String, Long> reservas = new ConcurrentHashMap<>();
+	
+	// Cerrojos repartidos por nombre: la subida (reservar, comprobar si existe y mover) y el
+	// borrado (comprobar la reserva y los clientes y borrar) de un mismo nombre no se mezclan
+	private final Object[] cerrojos = new Object[NUMERO_CERROJOS];
+	{
+		for (int i = 0; i < cerrojos.length; i++) {
+			cerrojos[i] = new Object();
+		}
+	}
+	
+	// Hilo en segundo plano que borra las fotos sustituidas sin retrasar la respuesta
+	private final ScheduledExecutorService limpiador = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread hilo = new Thread(r, "uploads-limpiador");
+		hilo.setDaemon(true);
+		return hilo;
+	});
+	
+	// Imagen por defecto cargada una sola vez desde el classpath y compartida en memoria
+	private Resource imagenPorDefecto;
+	
+	// Nombres de imágenes que no existen (caché negativa acotada, con caducidad)
+	private CacheAcotada<String, Boolean> faltantes;
+	
+	// Directorio raíz de las imágenes; los tests usan uno temporal
+	@Value("${uploads.directorio:uploads}")
+	private String directorioUpload;
+	
+	@Value("${uploads.faltantes.tamano-maximo:10000}")
+	private int tamanoMaximoFaltantes;
+	
+	@Value("${uploads.faltantes.ttl-segundos:60}")
+	private long ttlFaltantesSegundos;
+	
+	// Tiempo durante el que una imagen recién subida no se borra aunque ningún cliente
+	// la use todavía, porque el cliente que la referencia se guarda después de copiarla
+	@Value("${uploads.reserva-segundos:60}")
+	private long reservaSegundos;
+	
+	@PostConstruct
+	public void init() throws IOException {
+		Files.createDirectories(Paths.get(directorioUpload).resolve(DIRECTORIO_TEMPORAL));
+		
+		byte[] bytes = StreamUtils.copyToByteArray(new ClassPathResource(IMAGEN_POR_DEFECTO).getInputStream());
+		imagenPorDefecto = new ByteArrayResource(bytes, "Imagen por defecto") {
+			@Override
+			public String getFilename() {
+				return NOMBRE_IMAGEN_POR_DEFECTO;
+			}
+		};
+		
+		faltantes = new CacheAcotada<>(tamanoMaximoFaltantes, TimeUnit.SECONDS.toMillis(ttlFaltantesSegundos));
+	}
+	
+	@PreDestroy
+	public void destroy() {
+		limpiador.shutdown();
+	}
 
 	@Override
 	public Resource cargar(String nombreFoto) throws MalformedURLException {
 		
-		Path rutaArchivo = getPath(nombreFoto);
-		log.info(rutaArchivo.toString());
+		// Los nombres que ya se sabe que no existen no vuelven a consultar el disco
+		if (faltantes.obtener(nombreFoto) != null) {
+			metricasUploads.faltantes(true);
+			return imagenPorDefecto;
+		}
+		metricasUploads.faltantes(false);
 		
-		Resource recurso = new UrlResource(rutaArchivo.toUri());
+		Path rutaArchivo = getPath(nombreFoto);
+		log.debug(rutaArchivo.toString());
 		
-		if(!recurso.exists() && !recurso.isReadable()) {
-			rutaArchivo = Paths.get("src/main/resources/static/images").resolve("no-usuario.png").toAbsolutePath();
-			
-			recurso = new UrlResource(rutaArchivo.toUri());
-			
+		if (!Files.isReadable(rutaArchivo)) {
 			log.error("Error no se pudo cargar la imagen: " + nombreFoto);
-			
+			faltantes.guardar(nombreFoto, Boolean.TRUE);
+			return imagenPorDefecto;
 		}
-		return recurso;
+		return new UrlResource(rutaArchivo.toUri());
 	}
 
 	@Override
 	public String copiar(MultipartFile archivo) throws IOException {
 		
-		String nombreArchivo = UUID.randomUUID().toString() + "_" +  archivo.getOriginalFilename().replace(" ", "");
-		
-		Path rutaArchivo = getPath(nombreArchivo);
-		log.info(rutaArchivo.toString());
+		Path rutaTemporal = Paths.get(directorioUpload).resolve(DIRECTORIO_TEMPORAL)
+				.resolve(UUID.randomUUID().toString()).toAbsolutePath();
 		
-		Files.copy(archivo.getInputStream(), rutaArchivo);
-		
-		return nombreArchivo;
+		try {
+			// El hash se calcula a la vez que se escriben los bytes en el archivo temporal
+			MessageDigest sha256 = sha256();
+			try (InputStream entrada = new DigestInputStream(archivo.getInputStream(), sha256);
+					OutputStream salida = Files.newOutputStream(rutaTemporal)) {
+				byte[] buffer = new byte[TAMANO_BUFFER];
+				int leidos;
+				while ((leidos = entrada.read(buffer)) != -1) {
+					salida.write(buffer, 0, leidos);
+					metricasUploads.subidos(leidos);
+				}
+			}
+			
+			String nombreArchivo = hex(sha256.digest()) + extension(archivo.getOriginalFilename());
+			Path rutaArchivo = getPath(nombreArchivo);
+			log.debug(rutaArchivo.toString());
+			
+			reservar(nombreArchivo);
+			synchronized (cerrojo(nombreArchivo)) {
+				// Si la misma imagen ya está guardada se reutiliza y el temporal se descarta
+				if (!Files.exists(rutaArchivo)) {
+					Files.createDirectories(rutaArchivo.getParent());
+					// El archivo solo aparece en uploads cuando está completo; si otra subida de la
+					// misma imagen se adelanta, el rename sustituye un contenido idéntico
+					Files.move(rutaTemporal, rutaArchivo, StandardCopyOption.ATOMIC_MOVE);
+				}
+			}
+			
+			// Si el nombre estaba en la caché negativa deja de estarlo
+			faltantes.invalidar(nombreArchivo);
+			
+			// Las miniaturas se generan en segundo plano, sin retrasar la respuesta
+			generadorMiniaturas.generar(rutaArchivo, tamano -> rutaMiniatura(nombreArchivo, tamano));
+			
+			return nombreArchivo;
+		} finally {
+			Files.deleteIfExists(rutaTemporal);
+		}
 	}
 
 	@Override
 	public boolean eliminar(String nombreFoto) {
 		
 		if(nombreFoto !=null && nombreFoto.length() >0) {
-			Path rutaFotoAnterior = Paths.get("uploads").resolve(nombreFoto).toAbsolutePath();
-			File archivoFotoAnterior = rutaFotoAnterior.toFile();
-			if(archivoFotoAnterior.exists() && archivoFotoAnterior.canRead()) {
-				archivoFotoAnterior.delete();
-				return true;
+			synchronized (cerrojo(nombreFoto)) {
+				// Solo se borra el archivo si ya no lo usa ningún cliente
+				if (clienteDao.countByFoto(nombreFoto) > 0) {
+					return false;
+				}
+				Path rutaFotoAnterior = getPath(nombreFoto);
+				try {
+					if (Files.deleteIfExists(rutaFotoAnterior)) {
+						for (int tamano : generadorMiniaturas.getTamanos()) {
+							Files.deleteIfExists(rutaMiniatura(nombreFoto, tamano));
+						}
+						return true;
+					}
+				} catch (IOException e) {
+					log.warn("No se pudo eliminar la imagen " + nombreFoto + ": " + e.getMessage());
+				}
 			}
 		}
 		
 		return false;
 	}
 
+	@Override
+	public void eliminarDiferido(String nombreFoto) {
+		if(nombreFoto !=null && nombreFoto.length() >0) {
+			eliminarDespuesDe(nombreFoto, 0);
+		}
+	}
+
+	private void eliminarDespuesDe(String nombreFoto, long esperaMillis) {
+		limpiador.schedule(() -> {
+			// La reserva se comprueba con el mismo cerrojo que el borrado: una subida de la misma
+			// imagen queda antes (y se ve su reserva) o después (y vuelve a crear el archivo)
+			synchronized (cerrojo(nombreFoto)) {
+				// Si la imagen se acaba de subir de nuevo se espera a que el cliente que la usa se guarde
+				Long reserva = reservas.get(nombreFoto);
+				long ahora = System.currentTimeMillis();
+				if (reserva != null && reserva > ahora) {
+					eliminarDespuesDe(nombreFoto, reserva - ahora);
+					return;
+				}
+				try {
+					eliminar(nombreFoto);
+				} catch (RuntimeException e) {
+					log.warn("No se pudo eliminar la imagen anterior: " + nombreFoto, e);
+				}
+			}
+		}, esperaMillis, TimeUnit.MILLISECONDS);
+	}
+	
+	private void reservar(String nombreFoto) {
+		Long reserva = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(reservaSegundos);
+		reservas.put(nombreFoto, reserva);
+		// Solo se quita esta reserva: si entretanto se ha vuelto a subir la imagen, sigue la nueva
+		limpiador.schedule(() -> reservas.remove(nombreFoto, reserva), reservaSegundos, TimeUnit.SECONDS);
+	}
+	
+	boolean reservada(String nombreFoto) {
+		return reservas.containsKey(nombreFoto);
+	}
+	
+	private Object cerrojo(String nombreFoto) {
+		return cerrojos[(nombreFoto.hashCode() & Integer.MAX_VALUE) % cerrojos.length];
+	}
+
 	@Override
 	public Path getPath(String nombreFoto) {
-		return Paths.get(DIRECTORIO_UPLOAD).resolve(nombreFoto).toAbsolutePath();
+		return Paths.get(directorioUpload).resolve(rutaRelativa(nombreFoto)).toAbsolutePath();
+	}
+
+	@Override
+	public Path getPathMiniatura(String nombreFoto, int tamano) {
+		int tamanoMiniatura = generadorMiniaturas.tamanoParaPeticion(tamano);
+		if (tamanoMiniatura == 0) {
+			return null;
+		}
+		Path miniatura = rutaMiniatura(nombreFoto, tamanoMiniatura);
+		if (Files.isReadable(miniatura)) {
+			metricasUploads.miniaturas(true);
+			return miniatura;
+		}
+		metricasUploads.miniaturas(false);
+		return null;
+	}
+
+	private Path rutaMiniatura(String nombreFoto, int tamano) {
+		return Paths.get(directorioUpload).resolve(DIRECTORIO_MINIATURAS).resolve(String.valueOf(tamano))
+				.resolve(rutaRelativa(nombreFoto)).toAbsolutePath();
+	}
+
+	// Los nombres por hash se reparten en dos niveles de subdirectorios: ab/cd/abcd...
+	private static String rutaRelativa(String nombreFoto) {
+		if (NOMBRE_HASH.matcher(nombreFoto).matches()) {
+			return nombreFoto.substring(0, 2) + "/" + nombreFoto.substring(2, 4) + "/" + nombreFoto;
+		}
+		return nombreFoto;
+	}
+
+	private static String extension(String nombreOriginal) {
+		if (nombreOriginal == null || nombreOriginal.lastIndexOf('.') < 0) {
+			return "";
+		}
+		String extension = nombreOriginal.substring(nombreOriginal.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+		return EXTENSION.matcher(extension).matches() ? "." + extension : "";
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String hex(byte[] bytes) {
+		StringBuilder hex = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+		}
+		return hex.toString();
 	}
 
 }
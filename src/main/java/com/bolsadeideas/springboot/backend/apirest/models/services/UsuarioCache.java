@@ -0,0 +1,23 @@
+package com.bolsadeideas.springboot.backend.apirest.models.services;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.bolsadeideas.springboot.backend.apirest.models.dto.UsuarioDto;
+
+/**
+ * Caché de usuarios con sus roles, por nombre de usuario, compartida por el login
+ * (loadUserByUsername) y por el enriquecimiento del token. Las entradas caducan tras un
+ * tiempo de vida y se invalidan cuando se confirma una modificación de usuarios o roles.
+ */
+@Component
+public class UsuarioCache extends CacheAcotada<String, UsuarioDto> {
+
+	public UsuarioCache(@Value("${usuarios.cache.tamano-maximo:1000}") int tamanoMaximo,
+			@Value("${usuarios.cache.ttl-segundos:300}") long ttlSegundos) {
+		super(tamanoMaximo, TimeUnit.SECONDS.toMillis(ttlSegundos));
+	}
+
+}
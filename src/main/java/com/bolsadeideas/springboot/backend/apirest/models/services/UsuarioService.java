@@ -10,27 +10,32 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.bolsadeideas.springboot.backend.apirest.models.dao.IUsuarioDao;
+import com.bolsadeideas.springboot.backend.apirest.models.dto.UsuarioDto;
 import com.bolsadeideas.springboot.backend.apirest.models.entity.Usuario;
 
 @Service
-public class UsuarioService implements IUsuarioService, UserDetailsService{
+public class UsuarioService implements IUsuarioService, UserDetailsService, UserDetailsPasswordService{
 	
 	private Logger logger = LoggerFactory.getLogger(UsuarioService.class);
 
 	@Autowired
 	private IUsuarioDao usuarioDao;
 	
+	@Autowired
+	private UsuarioCache usuarioCache;
+	
 	@Override
 	@Transactional(readOnly=true)
 	public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
 		
-		Usuario usuario = usuarioDao.findByUsername(username);
+		UsuarioDto usuario = findByUsername(username);
 		
 		if(usuario == null) {
 			logger.error("Error en el login: no existe el usuario '"+username+"' en el sistema!");
@@ -39,17 +44,44 @@ public class UsuarioService implements IUsuarioService, UserDetailsService{
 		
 		List<GrantedAuthority> authorities = usuario.getRoles()
 				.stream()
-				.map(role -> new SimpleGrantedAuthority(role.getNombre()))
-				.peek(authority -> logger.info("Role: " + authority.getAuthority()))
+				.map(SimpleGrantedAuthority::new)
 				.collect(Collectors.toList());
 		
-		return new User(usuario.getUsername(), usuario.getPassword(), usuario.getEnabled(), true, true, true, authorities);
+		if (logger.isDebugEnabled()) {
+			logger.debug("Roles de '" + username + "': " + authorities);
+		}
+		
+		// Se crea un User nuevo en cada llamada: Spring Security borra la contraseña del
+		// principal tras autenticar y no debe afectar al usuario guardado en caché
+		return new User(usuario.getUsername(), usuario.getPassword(), usuario.isEnabled(), true, true, true, authorities);
+	}
+
+	// Guarda la contraseña codificada de nuevo cuando cambia la fuerza configurada de BCrypt
+	@Override
+	@Transactional
+	public UserDetails updatePassword(UserDetails user, String newPassword) {
+		Usuario usuario = usuarioDao.findByUsername(user.getUsername());
+		if (usuario != null) {
+			usuario.setPassword(newPassword);
+			usuarioDao.save(usuario);
+		}
+		return User.withUserDetails(user).password(newPassword).build();
 	}
 
 	@Override
 	@Transactional(readOnly=true)
-	public Usuario findByUsername(String username) {
-		return usuarioDao.findByUsername(username);
+	public UsuarioDto findByUsername(String username) {
+		UsuarioDto usuario = usuarioCache.obtener(username);
+		if (usuario == null) {
+			long version = usuarioCache.version();
+			// Usuario y roles en una sola consulta; en caché se guarda una copia inmutable
+			Usuario entidad = usuarioDao.findByUsernameConRoles(username);
+			if (entidad != null) {
+				usuario = new UsuarioDto(entidad);
+				usuarioCache.guardar(username, usuario, version);
+			}
+		}
+		return usuario;
 	}
 
 }
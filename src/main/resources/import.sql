@@ -43,12 +43,12 @@ INSERT INTO productos (nombre, precio, create_at) VALUES('Bianchi Bicicleta Aro
 INSERT INTO productos (nombre, precio, create_at) VALUES('Mica Comoda 5 Cajones', 299990, NOW());
 
 /* Creamos algunas facturas */
-INSERT INTO facturas (descripcion, observacion, cliente_id, create_at) VALUES('Factura equipos de oficina', null, 1, NOW());
+INSERT INTO facturas (descripcion, observacion, cliente_id, create_at, total) VALUES('Factura equipos de oficina', null, 1, NOW(), 705950);
 
-INSERT INTO facturas_items (cantidad, factura_id, producto_id) VALUES(1, 1, 1);
-INSERT INTO facturas_items (cantidad, factura_id, producto_id) VALUES(2, 1, 4);
-INSERT INTO facturas_items (cantidad, factura_id, producto_id) VALUES(1, 1, 5);
-INSERT INTO facturas_items (cantidad, factura_id, producto_id) VALUES(1, 1, 7);
+INSERT INTO facturas_items (cantidad, factura_id, producto_id, importe) VALUES(1, 1, 1, 259990);
+INSERT INTO facturas_items (cantidad, factura_id, producto_id, importe) VALUES(2, 1, 4, 75980);
+INSERT INTO facturas_items (cantidad, factura_id, producto_id, importe) VALUES(1, 1, 5, 69990);
+INSERT INTO facturas_items (cantidad, factura_id, producto_id, importe) VALUES(1, 1, 7, 299990);
 
-INSERT INTO facturas (descripcion, observacion, cliente_id, create_at) VALUES('Factura Bicicleta', 'Alguna nota importante!', 1, NOW());
-INSERT INTO facturas_items (cantidad, factura_id, producto_id) VALUES(3, 2, 6);
\ No newline at end of file
+INSERT INTO facturas (descripcion, observacion, cliente_id, create_at, total) VALUES('Factura Bicicleta', 'Alguna nota importante!', 1, NOW(), 209970);
+INSERT INTO facturas_items (cantidad, factura_id, producto_id, importe) VALUES(3, 2, 6, 209970);
\ No newline at end of file
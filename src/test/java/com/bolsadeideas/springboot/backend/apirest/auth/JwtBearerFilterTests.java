@@ -0,0 +1,46 @@
+package com.bolsadeideas.springboot.backend.apirest.auth;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.security.interfaces.RSAPublicKey;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.servlet.FilterChain;
+
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.provider.token.store.KeyStoreKeyFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class JwtBearerFilterTests {
+
+	private final JwtBearerFilter filtro = new JwtBearerFilter(new VerificadorJwt((RSAPublicKey) new KeyStoreKeyFactory(
+			new ClassPathResource("jwt.jks"), "jwtsecreto".toCharArray()).getKeyPair("jwt").getPublic(),
+			new ObjectMapper(), 100), (request, response, e) -> response.sendError(401));
+
+	@Test
+	public void cadaPeticionSinTokenRecibeSuPropiaAutenticacionAnonima() throws Exception {
+		List<Authentication> vistas = new ArrayList<>();
+		FilterChain cadena = (request, response) -> vistas.add(SecurityContextHolder.getContext().getAuthentication());
+
+		filtro.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), cadena);
+		// Una petición que modifica su autenticación no afecta a las siguientes
+		vistas.get(0).setAuthenticated(false);
+		filtro.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), cadena);
+
+		assertTrue(vistas.get(1) instanceof AnonymousAuthenticationToken);
+		assertNotSame(vistas.get(0), vistas.get(1));
+		assertTrue(vistas.get(1).isAuthenticated());
+		assertNull(SecurityContextHolder.getContext().getAuthentication());
+	}
+
+}
@@ -0,0 +1,74 @@
+package com.bolsadeideas.springboot.backend.apirest.auth;
+
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = { "seguridad.password.hilos=1", "seguridad.password.cola=1" })
+@AutoConfigureMockMvc
+public class PasswordEncoderSaturadoTests {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private PasswordEncoderVerificador encoder;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	@Test
+	public void conElPoolLlenoElLoginRespondeTooManyRequests() throws Exception {
+		CountDownLatch ocupado = new CountDownLatch(1);
+		CountDownLatch liberar = new CountDownLatch(1);
+		ExecutorService llamantes = Executors.newFixedThreadPool(2);
+		try {
+			// Una tarea ocupa el único hilo del pool y otra la única plaza de la cola
+			llamantes.submit(() -> encoder.ejecutar(() -> {
+				ocupado.countDown();
+				return liberar.await(10, TimeUnit.SECONDS);
+			}));
+			assertTrue(ocupado.await(10, TimeUnit.SECONDS));
+			llamantes.submit(() -> encoder.ejecutar(() -> true));
+			while (registry.get("seguridad.password.cola").gauge().value() < 1) {
+				Thread.sleep(10);
+			}
+
+			String cliente = Base64.getEncoder().encodeToString("angularapp:12345".getBytes(StandardCharsets.UTF_8));
+			mvc.perform(post("/oauth/token")
+					.header(HttpHeaders.AUTHORIZATION, "Basic " + cliente)
+					.param("grant_type", "password")
+					.param("username", "admin")
+					.param("password", "12345"))
+					.andExpect(status().isTooManyRequests())
+					.andExpect(jsonPath("$.error").value("too_many_requests"));
+		} finally {
+			liberar.countDown();
+			llamantes.shutdown();
+			llamantes.awaitTermination(10, TimeUnit.SECONDS);
+		}
+		assertTrue(registry.get("seguridad.password.rechazadas").counter().count() >= 1);
+		assertTrue(registry.get("seguridad.password.espera").timer().count() >= 2);
+	}
+
+}
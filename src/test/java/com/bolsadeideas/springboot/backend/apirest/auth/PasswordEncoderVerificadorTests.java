@@ -0,0 +1,47 @@
+package com.bolsadeideas.springboot.backend.apirest.auth;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class PasswordEncoderVerificadorTests {
+
+	private SimpleMeterRegistry registry;
+
+	private PasswordEncoderVerificador encoder;
+
+	@Before
+	public void setUp() {
+		registry = new SimpleMeterRegistry();
+		encoder = new PasswordEncoderVerificador(5, 2, 4, registry);
+	}
+
+	@After
+	public void tearDown() {
+		encoder.destroy();
+	}
+
+	@Test
+	public void verificaEnElPoolYRegistraElTiempo() {
+		String hash = encoder.encode("12345");
+
+		assertTrue(encoder.matches("12345", hash));
+		assertFalse(encoder.matches("54321", hash));
+		assertEquals(2, registry.get("seguridad.password.verificacion").timer().count());
+	}
+
+	@Test
+	public void marcaParaRecodificarLosHashDeOtraFuerza() {
+		assertFalse(encoder.upgradeEncoding(encoder.encode("12345")));
+		assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("12345")));
+		assertTrue(encoder.upgradeEncoding("$2a$10$C3Uln5uqnzx/GswADURJGOIdBqYrly9731fnwKDaUdBkt/M3qvtLq"));
+	}
+
+}
@@ -0,0 +1,54 @@
+package com.bolsadeideas.springboot.backend.apirest.auth;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.web.server.LocalManagementPort;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+		"management.server.port=0", "management.server.address=127.0.0.1" })
+public class PuertoGestionTests {
+
+	@LocalServerPort
+	private int puerto;
+
+	@LocalManagementPort
+	private int puertoGestion;
+
+	@Autowired
+	private TestRestTemplate rest;
+
+	@Test
+	public void prometheusSoloVaSinTokenPorElPuertoDeGestion() {
+		assertNotEquals(puerto, puertoGestion);
+
+		ResponseEntity<String> gestion = rest.getForEntity(
+				"http://127.0.0.1:" + puertoGestion + "/actuator/prometheus", String.class);
+		assertEquals(HttpStatus.OK, gestion.getStatusCode());
+		assertTrue(gestion.getBody().contains("uploads_bytes_total{"));
+
+		ResponseEntity<String> publico = rest.getForEntity(
+				"http://127.0.0.1:" + puerto + "/actuator/prometheus", String.class);
+		assertEquals(HttpStatus.UNAUTHORIZED, publico.getStatusCode());
+	}
+
+	@Test
+	public void laApiNoSeSirvePorElPuertoDeGestion() {
+		ResponseEntity<String> respuesta = rest.getForEntity(
+				"http://127.0.0.1:" + puertoGestion + "/api/clientes", String.class);
+		assertEquals(HttpStatus.NOT_FOUND, respuesta.getStatusCode());
+	}
+
+}
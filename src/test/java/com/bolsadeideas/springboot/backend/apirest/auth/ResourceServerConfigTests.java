@@ -0,0 +1,98 @@
+package com.bolsadeideas.springboot.backend.apirest.auth;
+
+import static org.junit.Assert.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ResourceServerConfigTests {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	public void elPasswordGrantYElRefreshDanTokensValidosParaLaApi() throws Exception {
+		JsonNode token = token("password", "username", "admin", "password", "12345");
+		// Fuera del modo compacto el token sigue llevando los datos de perfil
+		assertEquals("John", token.get("nombre").asText());
+		assertEquals("John", objectMapper.readTree(JwtHelper.decode(token.get("access_token").asText()).getClaims()).get("nombre").asText());
+		mvc.perform(get("/api/usuarios/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + token.get("access_token").asText()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.username").value("admin"));
+
+		JsonNode refrescado = token("refresh_token", "refresh_token", token.get("refresh_token").asText());
+		mvc.perform(get("/api/clientes/regiones").header(HttpHeaders.AUTHORIZATION, "Bearer " + refrescado.get("access_token").asText()))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	public void sinTokenLasRutasProtegidasRespondenUnauthorized() throws Exception {
+		mvc.perform(get("/api/usuarios/me"))
+				.andExpect(status().isUnauthorized())
+				.andExpect(header().string(HttpHeaders.WWW_AUTHENTICATE, Matchers.containsString("Bearer")))
+				.andExpect(jsonPath("$.error").value("unauthorized"));
+		mvc.perform(get("/api/clientes/page/0")).andExpect(status().isOk());
+	}
+
+	@Test
+	public void unTokenNoValidoSeRechazaAunqueLaRutaSeaPublica() throws Exception {
+		mvc.perform(get("/api/clientes/page/0").header(HttpHeaders.AUTHORIZATION, "Bearer abc.def.ghi"))
+				.andExpect(status().isUnauthorized())
+				.andExpect(jsonPath("$.error").value("invalid_token"));
+
+		// Un refresh token no sirve como access token
+		JsonNode token = token("password", "username", "admin", "password", "12345");
+		mvc.perform(get("/api/usuarios/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + token.get("refresh_token").asText()))
+				.andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	public void losRolesDelTokenSeAplicanEnLosMetodosSecured() throws Exception {
+		JsonNode token = token("password", "username", "andres", "password", "12345");
+		mvc.perform(get("/api/clientes/regiones").header(HttpHeaders.AUTHORIZATION, "Bearer " + token.get("access_token").asText()))
+				.andExpect(status().isForbidden())
+				.andExpect(jsonPath("$.error").value("access_denied"));
+	}
+
+	private JsonNode token(String grant, String... parametros) throws Exception {
+		String cliente = Base64.getEncoder().encodeToString("angularapp:12345".getBytes(StandardCharsets.UTF_8));
+		MockHttpServletRequestBuilder peticion = post("/oauth/token")
+				.header(HttpHeaders.AUTHORIZATION, "Basic " + cliente)
+				.param("grant_type", grant);
+		for (int i = 0; i < parametros.length; i += 2) {
+			peticion.param(parametros[i], parametros[i + 1]);
+		}
+		String respuesta = mvc.perform(peticion)
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.token_type").value("bearer"))
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(respuesta);
+	}
+
+}
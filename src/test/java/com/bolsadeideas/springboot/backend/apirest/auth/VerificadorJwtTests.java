@@ -0,0 +1,76 @@
+package com.bolsadeideas.springboot.backend.apirest.auth;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.jwt.crypto.sign.RsaSigner;
+import org.springframework.security.oauth2.provider.token.store.KeyStoreKeyFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class VerificadorJwtTests {
+
+	private KeyPair claves;
+
+	private VerificadorJwt verificador;
+
+	@Before
+	public void setUp() {
+		claves = new KeyStoreKeyFactory(new ClassPathResource("jwt.jks"), "jwtsecreto".toCharArray()).getKeyPair("jwt");
+		verificador = new VerificadorJwt((RSAPublicKey) claves.getPublic(), new ObjectMapper(), 100);
+	}
+
+	@Test
+	public void construyeLaAutenticacionConLosClaimsYNoLaComparte() {
+		String token = firmar(claves, System.currentTimeMillis() / 1000 + 3600);
+
+		Authentication autenticacion = verificador.autenticar(token);
+		assertEquals("admin", autenticacion.getName());
+		assertEquals(AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN"), autenticacion.getAuthorities());
+
+		// La segunda petición usa la verificación guardada, pero recibe su propia Authentication
+		autenticacion.setAuthenticated(false);
+		Authentication otra = verificador.autenticar(token);
+		assertNotSame(autenticacion, otra);
+		assertTrue(otra.isAuthenticated());
+		assertEquals(autenticacion.getAuthorities(), otra.getAuthorities());
+	}
+
+	@Test(expected = BadCredentialsException.class)
+	public void rechazaTokensCaducados() {
+		verificador.autenticar(firmar(claves, System.currentTimeMillis() / 1000 - 10));
+	}
+
+	@Test(expected = BadCredentialsException.class)
+	public void rechazaTokensConOtraFirma() throws Exception {
+		KeyPair otras = KeyPairGenerator.getInstance("RSA").generateKeyPair();
+		verificador.autenticar(firmar(otras, System.currentTimeMillis() / 1000 + 3600));
+	}
+
+	@Test(expected = BadCredentialsException.class)
+	public void rechazaLosRefreshToken() {
+		String claims = "{\"user_name\":\"admin\",\"authorities\":[\"ROLE_USER\"],\"ati\":\"abc\",\"exp\":"
+				+ (System.currentTimeMillis() / 1000 + 3600) + "}";
+		verificador.autenticar(JwtHelper.encode(claims, new RsaSigner((RSAPrivateKey) claves.getPrivate())).getEncoded());
+	}
+
+	static String firmar(KeyPair claves, long exp) {
+		String claims = "{\"user_name\":\"admin\",\"authorities\":[\"ROLE_USER\",\"ROLE_ADMIN\"],\"exp\":" + exp
+				+ ",\"client_id\":\"angularapp\",\"scope\":[\"read\",\"write\"]}";
+		return JwtHelper.encode(claims, new RsaSigner((RSAPrivateKey) claves.getPrivate())).getEncoded();
+	}
+
+}
@@ -0,0 +1,391 @@
+package com.bolsadeideas.springboot.backend.apirest.controllers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.hamcrest.Matchers;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.bolsadeideas.springboot.backend.apirest.models.dto.ClienteDto;
+import com.bolsadeideas.springboot.backend.apirest.models.entity.Cliente;
+import com.bolsadeideas.springboot.backend.apirest.models.entity.Region;
+import com.bolsadeideas.springboot.backend.apirest.models.services.IClienteService;
+import com.bolsadeideas.springboot.backend.apirest.models.services.IUploadFileService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ClienteRestControllerTests {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private IUploadFileService uploadService;
+
+	@Autowired
+	private ApplicationContext contexto;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private IClienteService clienteService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private String nombreFoto;
+
+	@Before
+	public void setUp() throws Exception {
+		nombreFoto = UUID.randomUUID().toString() + "_foto.png";
+		Files.write(uploadService.getPath(nombreFoto), "0123456789".getBytes());
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		Files.deleteIfExists(uploadService.getPath(nombreFoto));
+	}
+
+	@Test
+	public void verFotoSeCacheaYRespondeNotModified() throws Exception {
+		MvcResult resultado = mvc.perform(get("/api/uploads/img/" + nombreFoto))
+				.andExpect(status().isOk())
+				.andExpect(content().bytes("0123456789".getBytes()))
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, Matchers.containsString("immutable")))
+				.andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+				.andReturn();
+
+		String etag = resultado.getResponse().getHeader(HttpHeaders.ETAG);
+		double aciertos = meterRegistry.get("uploads.cache").tag("cache", "navegador").tag("resultado", "acierto")
+				.counter().count();
+		mvc.perform(get("/api/uploads/img/" + nombreFoto).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+		assertEquals(aciertos + 1, meterRegistry.get("uploads.cache").tag("cache", "navegador")
+				.tag("resultado", "acierto").counter().count(), 0);
+	}
+
+	@Test
+	public void prometheusPideTokenFueraDelPuertoDeGestion() throws Exception {
+		mvc.perform(get("/api/clientes/1")).andExpect(status().isOk());
+		mvc.perform(get("/api/uploads/img/" + nombreFoto)).andExpect(status().isOk());
+
+		mvc.perform(get("/actuator/prometheus")).andExpect(status().isUnauthorized());
+		mvc.perform(get("/actuator/prometheus").header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenAdmin()))
+				.andExpect(status().isOk())
+				.andExpect(content().string(Matchers.containsString("http_server_requests_seconds_bucket{")))
+				.andExpect(content().string(Matchers.containsString("uri=\"/api/clientes/{id}\"")))
+				.andExpect(content().string(Matchers.containsString("repositorio_llamadas_seconds_count{")))
+				.andExpect(content().string(Matchers.containsString("hikaricp_connections_active{")))
+				.andExpect(content().string(Matchers.containsString("uploads_bytes_total{")));
+	}
+
+	@Test
+	public void verFotoAdmiteRangos() throws Exception {
+		mvc.perform(get("/api/uploads/img/" + nombreFoto).header(HttpHeaders.RANGE, "bytes=2-5"))
+				.andExpect(status().isPartialContent())
+				.andExpect(content().bytes("2345".getBytes()));
+	}
+
+	@Test
+	public void verFotoInexistenteNoSeCachea() throws Exception {
+		Path inexistente = uploadService.getPath("no-existe.png");
+		Files.deleteIfExists(inexistente);
+		mvc.perform(get("/api/uploads/img/no-existe.png"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+	}
+
+	@Test
+	public void showDevuelveElDtoSinSesionAbierta() throws Exception {
+		assertTrue(contexto.getBeansOfType(OpenEntityManagerInViewInterceptor.class).isEmpty());
+		Timer usoConexiones = meterRegistry.get("hikaricp.connections.usage").timer();
+		long usosAntes = usoConexiones.count();
+
+		mvc.perform(get("/api/clientes/1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.region.id").value(1))
+				.andExpect(jsonPath("$.region.nombre").exists())
+				.andExpect(jsonPath("$.facturas").doesNotExist())
+				.andExpect(jsonPath("$.region.hibernateLazyInitializer").doesNotExist());
+
+		// Una sola conexión prestada durante la consulta, ya devuelta al pool al serializar
+		assertEquals(usosAntes + 1, usoConexiones.count());
+		assertEquals(0, meterRegistry.get("hikaricp.connections.active").gauge().value(), 0);
+	}
+
+	@Test
+	public void exportarEscribeTodosLosClientesComoArrayJson() throws Exception {
+		String cuerpo = mvc.perform(get("/api/clientes/exportar"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith("application/json"))
+				.andReturn().getResponse().getContentAsString();
+
+		JsonNode clientes = objectMapper.readTree(cuerpo);
+		assertTrue(clientes.isArray());
+		assertEquals(clienteService.count(), clientes.size());
+		assertEquals(1, clientes.get(0).get("id").asLong());
+		assertTrue(clientes.get(0).get("region").has("nombre"));
+		assertTrue(clientes.get(0).path("facturas").isMissingNode());
+	}
+
+	@Test
+	public void exportarNdjsonEscribeUnClientePorLinea() throws Exception {
+		String cuerpo = mvc.perform(get("/api/clientes/exportar").param("formato", "ndjson"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+				.andReturn().getResponse().getContentAsString();
+
+		assertTrue(cuerpo.endsWith("\n"));
+		String[] lineas = cuerpo.split("\n");
+		assertEquals(clienteService.count(), lineas.length);
+		long anterior = 0;
+		for (String linea : lineas) {
+			JsonNode cliente = objectMapper.readTree(linea);
+			assertTrue(cliente.get("id").asLong() > anterior);
+			anterior = cliente.get("id").asLong();
+		}
+	}
+
+	@Test
+	public void cursorPorIdRecorreTodosLosClientesHastaLaUltimaPagina() throws Exception {
+		List<Long> esperados = clienteService.findAll().stream().map(ClienteDto::getId).collect(Collectors.toList());
+
+		assertEquals(esperados, recorrerCursor("id", 5));
+
+		// Tras el último cliente la página viene vacía y sin cursor
+		mvc.perform(get("/api/clientes/cursor").param("ultimoId", esperados.get(esperados.size() - 1).toString()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content").isEmpty())
+				.andExpect(jsonPath("$.hasNext").value(false))
+				.andExpect(jsonPath("$.cursor").doesNotExist());
+	}
+
+	@Test
+	public void cursorPorFechaDesempataPorIdSinRepetirNiSaltarClientes() throws Exception {
+		// Tres clientes con la misma fecha de alta, que caen en páginas distintas
+		List<Long> empatados = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			empatados.add(clienteService.save(cliente("Empate" + i, "2030-01-01")).getId());
+		}
+		try {
+			List<Long> esperados = clienteService.findAll().stream()
+					.sorted(Comparator.comparing((ClienteDto cliente) -> cliente.getCreateAt().getTime())
+							.thenComparing(ClienteDto::getId))
+					.map(ClienteDto::getId).collect(Collectors.toList());
+
+			List<Long> recorridos = recorrerCursor("createAt", 2);
+			assertEquals(esperados, recorridos);
+			assertEquals(empatados, recorridos.subList(recorridos.size() - 3, recorridos.size()));
+		} finally {
+			empatados.forEach(clienteService::delete);
+		}
+	}
+
+	@Test
+	public void cursorPorFechaIncompletoEsBadRequest() throws Exception {
+		mvc.perform(get("/api/clientes/cursor").param("orden", "createAt").param("ultimoId", "3"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.mensaje").exists());
+		mvc.perform(get("/api/clientes/cursor").param("ultimaFecha", "2018-01-03"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void actualizarUnClienteInexistenteEsNotFoundAunqueLaRegionNoExista() throws Exception {
+		String cliente = "{\"nombre\":\"Nadie\",\"apellido\":\"Nadie\",\"email\":\"nadie@example.com\","
+				+ "\"createAt\":\"2018-01-01\",\"region\":{\"id\":99}}";
+		mvc.perform(put("/api/clientes/999999").header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenAdmin())
+				.contentType(MediaType.APPLICATION_JSON).content(cliente))
+				.andExpect(status().isNotFound());
+		mvc.perform(put("/api/clientes/1").header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenAdmin())
+				.contentType(MediaType.APPLICATION_JSON).content(cliente))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.errors[0]").value("El campo 'region' no corresponde a ninguna región"));
+	}
+
+	@Test
+	public void facturasDeUnClienteDevuelveLaPaginaDeResumenes() throws Exception {
+		String bearer = "Bearer " + tokenAdmin();
+
+		mvc.perform(get("/api/clientes/1/facturas").param("page", "1").param("size", "1")
+				.header(HttpHeaders.AUTHORIZATION, bearer))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content.length()").value(1))
+				.andExpect(jsonPath("$.number").value(1))
+				.andExpect(jsonPath("$.size").value(1))
+				.andExpect(jsonPath("$.totalElements").value(Matchers.greaterThanOrEqualTo(2)));
+
+		// Los resúmenes llevan el número de items, no los items ni el cliente
+		String cuerpo = mvc.perform(get("/api/clientes/1/facturas").param("size", "50")
+				.header(HttpHeaders.AUTHORIZATION, bearer))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		JsonNode equipos = null;
+		for (JsonNode factura : objectMapper.readTree(cuerpo).get("content")) {
+			if (factura.get("id").asLong() == 1) {
+				equipos = factura;
+			}
+		}
+		assertEquals("Factura equipos de oficina", equipos.get("descripcion").asText());
+		assertEquals(4, equipos.get("numeroItems").asLong());
+		assertEquals(705950, equipos.get("total").asDouble(), 0);
+		assertTrue(equipos.has("createAt"));
+		assertFalse(equipos.has("items"));
+		assertFalse(equipos.has("cliente"));
+
+		// El tamaño de página se limita a clientes.paginacion.tamano-maximo
+		mvc.perform(get("/api/clientes/1/facturas").param("size", "1000").header(HttpHeaders.AUTHORIZATION, bearer))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.size").value(50));
+	}
+
+	@Test
+	public void facturasDeUnClienteInexistenteEsNotFound() throws Exception {
+		mvc.perform(get("/api/clientes/999999/facturas").header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenAdmin()))
+				.andExpect(status().isNotFound())
+				.andExpect(jsonPath("$.mensaje").value("El cliente ID: 999999 no existe en la base de datos!"));
+	}
+
+	@Test
+	public void importarCsvDevuelveLasFilasImportadasYRechazadas() throws Exception {
+		String csv = "nombre,apellido,email,region_id\n"
+				+ "Alan,Turing,alan@importacion.example.com,4\n"
+				+ "Grace,Hopper,no-es-un-email,3\n";
+		try {
+			mvc.perform(post("/api/clientes/importar").header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenAdmin())
+					.contentType("text/csv").content(csv))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.importados").value(1))
+					.andExpect(jsonPath("$.rechazados").value(1))
+					.andExpect(jsonPath("$.errores[0].linea").value(3));
+		} finally {
+			jdbcTemplate.update("delete from clientes where email like '%@importacion.example.com'");
+		}
+	}
+
+	@Test
+	public void importarCsvSinLasColumnasObligatoriasEsBadRequest() throws Exception {
+		mvc.perform(post("/api/clientes/importar").header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenAdmin())
+				.contentType("text/csv").content("nombre;apellido;email\nAlan;Turing;alan@importacion.example.com\n"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.mensaje").value(Matchers.startsWith("Faltan columnas en la cabecera del CSV")));
+	}
+
+	@Test
+	public void importarUnArrayJsonComoNdjsonEsBadRequest() throws Exception {
+		mvc.perform(post("/api/clientes/importar").header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenAdmin())
+				.contentType("application/x-ndjson")
+				.content("[{\"nombre\":\"Alan\",\"apellido\":\"Turing\",\"email\":\"alan@importacion.example.com\",\"region\":4}]\n"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.mensaje").exists());
+	}
+
+	@Test
+	public void importarSoloLoPuedeHacerUnAdmin() throws Exception {
+		String csv = "nombre,apellido,email,region_id\nAlan,Turing,alan@importacion.example.com,4\n";
+		mvc.perform(post("/api/clientes/importar").contentType("text/csv").content(csv))
+				.andExpect(status().isUnauthorized());
+		mvc.perform(post("/api/clientes/importar").header(HttpHeaders.AUTHORIZATION, "Bearer " + token("andres"))
+				.contentType("text/csv").content(csv))
+				.andExpect(status().isForbidden());
+		assertEquals(Integer.valueOf(0), jdbcTemplate.queryForObject(
+				"select count(*) from clientes where email = 'alan@importacion.example.com'", Integer.class));
+	}
+
+	private String tokenAdmin() throws Exception {
+		return token("admin");
+	}
+
+	private String token(String usuario) throws Exception {
+		String cliente = Base64.getEncoder().encodeToString("angularapp:12345".getBytes(StandardCharsets.UTF_8));
+		String respuesta = mvc.perform(post("/oauth/token")
+				.header(HttpHeaders.AUTHORIZATION, "Basic " + cliente)
+				.param("grant_type", "password")
+				.param("username", usuario)
+				.param("password", "12345"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(respuesta).get("access_token").asText();
+	}
+
+	// Sigue el cursor de cada respuesta hasta la última página y devuelve los ids en orden
+	private List<Long> recorrerCursor(String orden, int tamano) throws Exception {
+		List<Long> ids = new ArrayList<>();
+		MockHttpServletRequestBuilder peticion = get("/api/clientes/cursor").param("orden", orden)
+				.param("tamano", String.valueOf(tamano));
+		while (true) {
+			JsonNode pagina = objectMapper.readTree(mvc.perform(peticion).andExpect(status().isOk())
+					.andReturn().getResponse().getContentAsString());
+			assertTrue(pagina.get("content").size() <= tamano);
+			pagina.get("content").forEach(cliente -> ids.add(cliente.get("id").asLong()));
+			if (!pagina.get("hasNext").asBoolean()) {
+				return ids;
+			}
+			JsonNode cursor = pagina.get("cursor");
+			assertEquals(ids.get(ids.size() - 1).longValue(), cursor.get("ultimoId").asLong());
+			peticion = get("/api/clientes/cursor").param("orden", orden).param("tamano", String.valueOf(tamano))
+					.param("ultimoId", cursor.get("ultimoId").asText());
+			if (cursor.has("ultimaFecha")) {
+				peticion.param("ultimaFecha", cursor.get("ultimaFecha").asText());
+			}
+		}
+	}
+
+	private static Cliente cliente(String nombre, String fecha) throws Exception {
+		Region region = new Region();
+		region.setId(1L);
+		Cliente cliente = new Cliente();
+		cliente.setNombre(nombre);
+		cliente.setApellido("Cursor");
+		cliente.setEmail(nombre.toLowerCase() + "@cursor.com");
+		cliente.setCreateAt(new SimpleDateFormat("yyyy-MM-dd").parse(fecha));
+		cliente.setRegion(region);
+		return cliente;
+	}
+
+}
@@ -0,0 +1,184 @@
+package com.bolsadeideas.springboot.backend.apirest.controllers;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.bolsadeideas.springboot.backend.apirest.models.services.IFacturaLoteService;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class FacturaRestControllerTests {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	// El servicio real, salvo en la prueba que simula otra petición guardando las mismas claves
+	@SpyBean
+	private IFacturaLoteService facturaLoteService;
+
+	private String bearer;
+
+	@Before
+	public void setUp() throws Exception {
+		bearer = bearer("admin");
+	}
+
+	@Test
+	public void creaLaFacturaConLosPreciosDeLaBaseDeDatos() throws Exception {
+		String respuesta = crear("[{\"cantidad\":2,\"producto\":{\"id\":1,\"precio\":1}}]")
+				.andExpect(status().isCreated())
+				.andExpect(jsonPath("$.items.length()").value(1))
+				.andExpect(jsonPath("$.total").value(519980.0))
+				.andReturn().getResponse().getContentAsString();
+
+		long id = objectMapper.readTree(respuesta).get("id").asLong();
+		mvc.perform(delete("/api/facturas/" + id).header(HttpHeaders.AUTHORIZATION, bearer))
+				.andExpect(status().isNoContent());
+	}
+
+	@Test
+	public void unItemSinProductoEsBadRequest() throws Exception {
+		crear("[{\"cantidad\":2}]")
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.mensaje").value("Todos los items de la factura tienen que indicar un producto"));
+	}
+
+	@Test
+	public void unProductoQueNoExisteEsBadRequest() throws Exception {
+		crear("[{\"cantidad\":2,\"producto\":{\"id\":999999}}]")
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.mensaje").value("El producto 999999 no existe"));
+	}
+
+	@Test
+	public void unaCantidadNoValidaEsBadRequest() throws Exception {
+		crear("[{\"producto\":{\"id\":1}}]")
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.mensaje").value("La cantidad del producto 1 tiene que ser mayor que 0"));
+	}
+
+	@Test
+	public void reenviarUnLoteDevuelveLasFacturasComoDuplicadas() throws Exception {
+		String clave = "web-" + UUID.randomUUID();
+		String lote = "[{\"claveIdempotencia\":\"" + clave + "\",\"clienteId\":1,\"descripcion\":\"Lote web\","
+				+ "\"items\":[{\"productoId\":1,\"cantidad\":1}]}]";
+
+		String respuesta = crearLote(lote, bearer)
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.creadas").value(1))
+				.andExpect(jsonPath("$.duplicadas").value(0))
+				.andExpect(jsonPath("$.rechazadas").value(0))
+				.andExpect(jsonPath("$.facturas[0].claveIdempotencia").value(clave))
+				.andExpect(jsonPath("$.facturas[0].duplicada").value(false))
+				.andReturn().getResponse().getContentAsString();
+		long id = objectMapper.readTree(respuesta).at("/facturas/0/id").asLong();
+		try {
+			JsonNode reenvio = objectMapper.readTree(crearLote(lote, bearer)
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.creadas").value(0))
+					.andExpect(jsonPath("$.duplicadas").value(1))
+					.andExpect(jsonPath("$.facturas[0].duplicada").value(true))
+					.andReturn().getResponse().getContentAsString());
+			assertEquals(id, reenvio.at("/facturas/0/id").asLong());
+		} finally {
+			mvc.perform(delete("/api/facturas/" + id).header(HttpHeaders.AUTHORIZATION, bearer))
+					.andExpect(status().isNoContent());
+		}
+	}
+
+	@Test
+	public void unLoteMalFormadoEsBadRequest() throws Exception {
+		crearLote("[{\"claveIdempotencia\":", bearer)
+				.andExpect(status().isBadRequest());
+		crearLote("{\"claveIdempotencia\":\"no-es-un-array\"}", bearer)
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void unLoteDemasiadoGrandeEsBadRequest() throws Exception {
+		StringBuilder lote = new StringBuilder("[{}");
+		for (int i = 0; i < 5000; i++) {
+			lote.append(",{}");
+		}
+		crearLote(lote.append(']').toString(), bearer)
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.mensaje").value("El lote no puede tener más de 5000 facturas"));
+	}
+
+	@Test
+	public void unaClaveGuardadaALaVezPorOtraPeticionEsConflict() throws Exception {
+		doThrow(new DuplicateKeyException("clave_idempotencia duplicada"))
+				.when(facturaLoteService).crearFacturas(anyList());
+
+		crearLote("[{\"claveIdempotencia\":\"concurrente\",\"clienteId\":1,\"items\":[{\"productoId\":1,\"cantidad\":1}]}]", bearer)
+				.andExpect(status().isConflict())
+				.andExpect(jsonPath("$.mensaje").value("El lote se está procesando en otra petición, vuelva a intentarlo"));
+	}
+
+	@Test
+	public void elLoteSoloLoPuedeEnviarUnAdmin() throws Exception {
+		String lote = "[{\"claveIdempotencia\":\"sin-permiso\",\"clienteId\":1,\"items\":[{\"productoId\":1,\"cantidad\":1}]}]";
+		mvc.perform(post("/api/facturas/lote").contentType(MediaType.APPLICATION_JSON).content(lote))
+				.andExpect(status().isUnauthorized());
+		crearLote(lote, bearer("andres"))
+				.andExpect(status().isForbidden());
+	}
+
+	private ResultActions crearLote(String lote, String autorizacion) throws Exception {
+		return mvc.perform(post("/api/facturas/lote")
+				.header(HttpHeaders.AUTHORIZATION, autorizacion)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(lote));
+	}
+
+	private String bearer(String usuario) throws Exception {
+		String cliente = Base64.getEncoder().encodeToString("angularapp:12345".getBytes(StandardCharsets.UTF_8));
+		String respuesta = mvc.perform(post("/oauth/token")
+				.header(HttpHeaders.AUTHORIZATION, "Basic " + cliente)
+				.param("grant_type", "password")
+				.param("username", usuario)
+				.param("password", "12345"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		return "Bearer " + objectMapper.readTree(respuesta).get("access_token").asText();
+	}
+
+	private ResultActions crear(String items) throws Exception {
+		String factura = "{\"descripcion\":\"Factura de prueba\",\"cliente\":{\"id\":1},\"items\":" + items + "}";
+		return mvc.perform(post("/api/facturas")
+				.header(HttpHeaders.AUTHORIZATION, bearer)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(factura));
+	}
+
+}
@@ -0,0 +1,54 @@
+package com.bolsadeideas.springboot.backend.apirest.controllers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "sql.presupuesto.sentencias=1")
+@AutoConfigureMockMvc
+public class PresupuestoSqlFilterTests {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	public void lasSentenciasDeCadaPeticionSePublicanPorUri() throws Exception {
+		mvc.perform(get("/api/clientes/1")).andExpect(status().isOk());
+
+		DistributionSummary sentencias = meterRegistry.get("http.peticiones.sentencias")
+				.tag("uri", "/api/clientes/{id}").tag("method", "GET").summary();
+		assertEquals(1, sentencias.count());
+		assertEquals(1, sentencias.totalAmount(), 0);
+	}
+
+	@Test
+	public void unaPeticionFueraDePresupuestoFallaEnModoEstricto() throws Exception {
+		// La primera página está llena, así que se lanza también la consulta de conteo
+		try {
+			mvc.perform(get("/api/clientes/page/0"));
+			fail("Se esperaba PresupuestoSqlExcedidoException");
+		} catch (PresupuestoSqlExcedidoException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("2 sentencias (máximo 1)"));
+			assertTrue(e.getMessage(), e.getMessage().contains("1 x"));
+			assertTrue(e.getMessage(), e.getMessage().contains("select count("));
+		}
+	}
+
+}
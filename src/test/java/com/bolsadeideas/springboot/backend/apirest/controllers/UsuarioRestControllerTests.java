@@ -0,0 +1,114 @@
+package com.bolsadeideas.springboot.backend.apirest.controllers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.bolsadeideas.springboot.backend.apirest.models.dao.IUsuarioDao;
+import com.bolsadeideas.springboot.backend.apirest.models.entity.Usuario;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "jwt.token-compacto=true")
+@AutoConfigureMockMvc
+public class UsuarioRestControllerTests {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private IUsuarioDao usuarioDao;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@Test
+	public void elTokenCompactoSoloLlevaElUsuarioYSusRoles() throws Exception {
+		JsonNode respuesta = token("admin");
+		assertFalse(respuesta.has("nombre"));
+
+		JsonNode claims = objectMapper.readTree(JwtHelper.decode(respuesta.get("access_token").asText()).getClaims());
+		assertEquals("admin", claims.get("user_name").asText());
+		assertEquals(2, claims.get("authorities").size());
+		assertFalse(claims.has("nombre"));
+		assertFalse(claims.has("email"));
+		assertFalse(claims.has("info_adicional"));
+	}
+
+	@Test
+	public void elPerfilSeRevalidaConElEtag() throws Exception {
+		String bearer = "Bearer " + token("admin").get("access_token").asText();
+
+		String etag = mvc.perform(get("/api/usuarios/me").header(HttpHeaders.AUTHORIZATION, bearer))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.username").value("admin"))
+				.andExpect(jsonPath("$.nombre").value("John"))
+				.andExpect(jsonPath("$.email").value("jhon.doe@bolsadeideas.com"))
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, private"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		mvc.perform(get("/api/usuarios/me").header(HttpHeaders.AUTHORIZATION, bearer).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+		mvc.perform(get("/api/usuarios/me").header(HttpHeaders.AUTHORIZATION, bearer).header(HttpHeaders.IF_NONE_MATCH, "\"otro\""))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	public void elPerfilDeUnUsuarioEliminadoNoExiste() throws Exception {
+		Usuario usuario = new Usuario();
+		usuario.setUsername("temporal");
+		usuario.setPassword(passwordEncoder.encode("12345"));
+		usuario.setEnabled(true);
+		usuario.setNombre("Temporal");
+		usuario.setEmail("temporal@bolsadeideas.com");
+		usuarioDao.save(usuario);
+		String bearer;
+		try {
+			bearer = "Bearer " + token("temporal").get("access_token").asText();
+			mvc.perform(get("/api/usuarios/me").header(HttpHeaders.AUTHORIZATION, bearer))
+					.andExpect(status().isOk());
+		} finally {
+			usuarioDao.delete(usuario);
+		}
+
+		// El token sigue siendo válido, pero el usuario ya no está en la base de datos ni en la caché
+		mvc.perform(get("/api/usuarios/me").header(HttpHeaders.AUTHORIZATION, bearer))
+				.andExpect(status().isNotFound())
+				.andExpect(jsonPath("$.mensaje").value("El usuario 'temporal' no existe en la base de datos!"));
+	}
+
+	private JsonNode token(String username) throws Exception {
+		String cliente = Base64.getEncoder().encodeToString("angularapp:12345".getBytes(StandardCharsets.UTF_8));
+		String respuesta = mvc.perform(post("/oauth/token")
+				.header(HttpHeaders.AUTHORIZATION, "Basic " + cliente)
+				.param("grant_type", "password")
+				.param("username", username)
+				.param("password", "12345"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(respuesta);
+	}
+
+}
@@ -0,0 +1,137 @@
+package com.bolsadeideas.springboot.backend.apirest.models.dao;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Date;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bolsadeideas.springboot.backend.apirest.models.dto.FacturaResumen;
+import com.bolsadeideas.springboot.backend.apirest.models.entity.Cliente;
+import com.bolsadeideas.springboot.backend.apirest.models.entity.Factura;
+import com.bolsadeideas.springboot.backend.apirest.models.entity.ItemFactura;
+import com.bolsadeideas.springboot.backend.apirest.models.entity.Producto;
+import com.bolsadeideas.springboot.backend.apirest.models.entity.Region;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@Transactional
+public class IFacturaDaoTests {
+
+	private static final int NUMERO_ITEMS = 200;
+
+	@Autowired
+	private IFacturaDao facturaDao;
+
+	@Autowired
+	private EntityManager em;
+
+	@Autowired
+	private EntityManagerFactory emf;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	public void findByIdConItemsCargaLaFacturaEnUnaConsulta() throws Exception {
+		Long id = crearFactura(NUMERO_ITEMS);
+
+		Statistics estadisticas = emf.unwrap(SessionFactory.class).getStatistics();
+		estadisticas.clear();
+
+		Factura factura = facturaDao.findByIdConItems(id);
+		// La serialización recorre items, productos, cliente y región
+		String json = new ObjectMapper().writeValueAsString(factura);
+
+		assertEquals(NUMERO_ITEMS, factura.getItems().size());
+		assertEquals(1, estadisticas.getPrepareStatementCount());
+		assertEquals(true, json.contains("\"region\""));
+	}
+
+	@Test
+	public void findResumenByClienteIdAgregaEnUnaConsulta() {
+		Long id = crearFactura(NUMERO_ITEMS);
+		Long clienteId = facturaDao.findById(id).get().getCliente().getId();
+		em.clear();
+
+		Statistics estadisticas = emf.unwrap(SessionFactory.class).getStatistics();
+		estadisticas.clear();
+
+		Page<FacturaResumen> pagina = facturaDao.findResumenByClienteId(clienteId, PageRequest.of(0, 10));
+
+		// La página no está llena, así que Spring Data no lanza la consulta de conteo
+		assertEquals(1, estadisticas.getPrepareStatementCount());
+		assertEquals(0, estadisticas.getEntityLoadCount());
+		assertEquals(1, pagina.getTotalElements());
+		assertEquals(NUMERO_ITEMS, pagina.getContent().get(0).getNumeroItems());
+		assertEquals(id, pagina.getContent().get(0).getId());
+	}
+
+	@Test
+	public void lasLlamadasAlRepositorioSeMidenConSusSentencias() {
+		Long id = crearFactura(NUMERO_ITEMS);
+		facturaDao.findByIdConItems(id);
+
+		Timer tiempo = meterRegistry.get("repositorio.llamadas").tag("repositorio", "IFacturaDao")
+				.tag("metodo", "findByIdConItems").timer();
+		DistributionSummary sentencias = meterRegistry.get("repositorio.sentencias").tag("repositorio", "IFacturaDao")
+				.tag("metodo", "findByIdConItems").summary();
+		long llamadas = tiempo.count();
+		double total = sentencias.totalAmount();
+
+		em.clear();
+		facturaDao.findByIdConItems(id);
+
+		assertEquals(llamadas + 1, tiempo.count());
+		assertEquals(total + 1, sentencias.totalAmount(), 0);
+	}
+
+	private Long crearFactura(int numeroItems) {
+		Region region = em.find(Region.class, 1L);
+
+		Cliente cliente = new Cliente();
+		cliente.setNombre("Prueba");
+		cliente.setApellido("Factura");
+		cliente.setEmail("prueba.factura@bolsadeideas.com");
+		cliente.setCreateAt(new Date());
+		cliente.setRegion(region);
+		em.persist(cliente);
+
+		Factura factura = new Factura();
+		factura.setDescripcion("Factura con muchos items");
+		factura.setCliente(cliente);
+		for (int i = 0; i < numeroItems; i++) {
+			Producto producto = new Producto();
+			producto.setNombre("Producto " + i);
+			producto.setPrecio(100.0 + i);
+			em.persist(producto);
+
+			ItemFactura item = new ItemFactura();
+			item.setCantidad(1 + i % 3);
+			item.setProducto(producto);
+			factura.getItems().add(item);
+		}
+		em.persist(factura);
+		em.flush();
+		em.clear();
+		return factura.getId();
+	}
+
+}
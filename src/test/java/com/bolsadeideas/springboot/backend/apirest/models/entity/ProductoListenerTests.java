@@ -0,0 +1,39 @@
+package com.bolsadeideas.springboot.backend.apirest.models.entity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.bolsadeideas.springboot.backend.apirest.models.dao.IProductoDao;
+import com.bolsadeideas.springboot.backend.apirest.models.services.ProductoIndiceBusqueda;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class ProductoListenerTests {
+
+	@Autowired
+	private IProductoDao productoDao;
+
+	@Autowired
+	private ProductoIndiceBusqueda productoIndice;
+
+	@Test
+	public void elIndiceSeActualizaAlGuardarYEliminarProductos() {
+		Producto producto = new Producto();
+		producto.setNombre("Xilófono Zeta");
+		producto.setPrecio(1990.0);
+		productoDao.save(producto);
+		try {
+			assertEquals(producto.getId(), productoIndice.buscar("xilofono", 5).get(0).getId());
+		} finally {
+			productoDao.delete(producto);
+		}
+		assertTrue(productoIndice.buscar("xilofono", 5).isEmpty());
+	}
+
+}
@@ -0,0 +1,112 @@
+package com.bolsadeideas.springboot.backend.apirest.models.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class CacheAcotadaTests {
+
+	private final AtomicLong reloj = new AtomicLong(1000);
+
+	private final CacheAcotada<String, String> cache = new CacheAcotada<>(10, 100, reloj::get);
+
+	@Test
+	public void devuelveLoGuardadoHastaQueCaduca() {
+		cache.guardar("a", "uno");
+		assertEquals("uno", cache.obtener("a"));
+		assertNull(cache.obtener("b"));
+
+		reloj.addAndGet(99);
+		assertEquals("uno", cache.obtener("a"));
+		reloj.addAndGet(1);
+		assertNull(cache.obtener("a"));
+		assertEquals(0, cache.tamano());
+	}
+
+	@Test
+	public void guardarHastaUsaLaExpiracionIndicada() {
+		cache.guardarHasta("a", "uno", 5000);
+		reloj.set(4999);
+		assertEquals("uno", cache.obtener("a"));
+		reloj.set(5000);
+		assertNull(cache.obtener("a"));
+
+		// Un valor ya caducado no se guarda
+		cache.guardarHasta("b", "dos", 5000);
+		assertEquals(0, cache.tamano());
+	}
+
+	@Test
+	public void nuncaSuperaElTamanoMaximo() {
+		for (int i = 0; i < 100; i++) {
+			cache.guardar("clave" + i, "valor" + i);
+			assertTrue(cache.tamano() <= 10);
+		}
+		assertEquals("valor99", cache.obtener("clave99"));
+	}
+
+	@Test
+	public void alLlenarseQuitaPrimeroLasEntradasCaducadas() {
+		for (int i = 0; i < 5; i++) {
+			cache.guardar("vieja" + i, "v");
+		}
+		reloj.addAndGet(50);
+		for (int i = 0; i < 5; i++) {
+			cache.guardar("nueva" + i, "n");
+		}
+		reloj.addAndGet(50);
+
+		cache.guardar("otra", "o");
+
+		assertEquals(6, cache.tamano());
+		for (int i = 0; i < 5; i++) {
+			assertEquals("n", cache.obtener("nueva" + i));
+		}
+	}
+
+	@Test
+	public void alLlenarseQuitaLasEntradasUsadasHaceMasTiempo() {
+		for (int i = 0; i < 10; i++) {
+			cache.guardar("clave" + i, "valor" + i);
+			reloj.incrementAndGet();
+		}
+		// La primera entrada guardada es la última leída: no se desaloja
+		cache.obtener("clave0");
+		reloj.incrementAndGet();
+
+		cache.guardar("otra", "o");
+
+		assertEquals(10, cache.tamano());
+		assertEquals("valor0", cache.obtener("clave0"));
+		assertNull(cache.obtener("clave1"));
+		assertEquals("valor2", cache.obtener("clave2"));
+	}
+
+	@Test
+	public void noGuardaCargasEmpezadasAntesDeUnaInvalidacion() {
+		long version = cache.version();
+		cache.invalidar("a");
+		assertFalse(cache.guardar("a", "antiguo", version));
+		assertNull(cache.obtener("a"));
+
+		version = cache.version();
+		assertTrue(cache.guardar("a", "nuevo", version));
+		assertEquals("nuevo", cache.obtener("a"));
+
+		version = cache.version();
+		cache.invalidarTodo();
+		assertNull(cache.obtener("a"));
+		assertFalse(cache.guardar("b", "antiguo", version));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rechazaUnTamanoMaximoNulo() {
+		new CacheAcotada<String, String>(0, 100);
+	}
+
+}
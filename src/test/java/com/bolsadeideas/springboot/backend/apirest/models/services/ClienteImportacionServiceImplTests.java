@@ -0,0 +1,113 @@
+package com.bolsadeideas.springboot.backend.apirest.models.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.bolsadeideas.springboot.backend.apirest.models.dao.IClienteDao;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class ClienteImportacionServiceImplTests {
+
+	@Autowired
+	private IClienteImportacionService importacionService;
+
+	@Autowired
+	private IClienteDao clienteDao;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	// La importación confirma sus propias transacciones: se borran aquí los clientes importados
+	@After
+	public void tearDown() {
+		jdbcTemplate.update("delete from clientes where email like '%@importacion.example.com'");
+	}
+
+	@Test
+	public void importaCsvYRechazaFilasInvalidas() throws Exception {
+		String csv = "nombre,apellido,email,create_at,region_id\n"
+				+ "Augusta,\"Lovelace, Byron\",ada@importacion.example.com,2018-05-01,4\n"
+				+ "Alan,Turing,alan@importacion.example.com,,4\n"
+				+ "Grace,Hopper,no-es-un-email,2018-05-01,3\n"
+				+ "Edsger,Dijkstra,ada@importacion.example.com,2018-05-01,4\n"
+				+ "Donald,Knuth,profesor@bolsadeideas.com,2018-05-01,3\n"
+				+ "Barbara,Liskov,barbara@importacion.example.com,2018-05-01,99\n";
+		long antes = clienteDao.count();
+
+		ResultadoImportacion resultado = importacionService.importarCsv(entrada(csv));
+
+		assertEquals(2, resultado.getImportados());
+		assertEquals(4, resultado.getRechazados());
+		assertEquals(antes + 2, clienteDao.count());
+		assertEquals(4, resultado.getErrores().get(0).getLinea());
+		assertTrue(resultado.getErrores().get(1).getErrores().get(0).contains("repetido"));
+		assertTrue(resultado.getErrores().get(2).getErrores().get(0).contains("ya está registrado"));
+		assertTrue(resultado.getErrores().get(3).getErrores().get(0).contains("región"));
+	}
+
+	@Test
+	public void importaNdjsonEnVariosLotes() throws Exception {
+		StringBuilder ndjson = new StringBuilder();
+		for (int i = 0; i < 2500; i++) {
+			ndjson.append("{\"nombre\":\"Nombre").append(i % 100).append("\",\"apellido\":\"Apellido\",\"email\":\"cliente")
+					.append(i).append("@importacion.example.com\",\"createAt\":\"2018-06-01\",\"region\":{\"id\":1}}\n");
+		}
+		// Repite el email de la primera fila, que se importó en un lote anterior
+		ndjson.append("{\"nombre\":\"Repetido\",\"apellido\":\"Apellido\",\"email\":\"cliente0@importacion.example.com\",\"region\":1}\n");
+		ndjson.append("{\"nombre\":\n");
+		long antes = clienteDao.count();
+
+		ResultadoImportacion resultado = importacionService.importarNdjson(entrada(ndjson.toString()));
+
+		assertEquals(2500, resultado.getImportados());
+		assertEquals(2, resultado.getRechazados());
+		assertEquals(2501, resultado.getErrores().get(0).getLinea());
+		assertTrue(resultado.getErrores().get(0).getErrores().get(0).contains("ya está registrado"));
+		assertEquals(2502, resultado.getErrores().get(1).getLinea());
+		assertEquals(antes + 2500, clienteDao.count());
+	}
+
+	@Test
+	public void unaFilaQueRechazaLaBaseDeDatosNoAnulaElRestoDelLote() throws Exception {
+		// Un email válido pero más largo que la columna: solo lo detecta la base de datos
+		StringBuilder largo = new StringBuilder();
+		for (int i = 0; i < 60; i++) {
+			largo.append('l');
+		}
+		largo.append('@');
+		for (int i = 0; i < 4; i++) {
+			largo.append("dddddddddddddddddddddddddddddddddddddddddddddddddddddddddddd.");
+		}
+		largo.append("com");
+		String csv = "nombre,apellido,email,create_at,region_id\n"
+				+ "Alan,Turing,alan@importacion.example.com,,4\n"
+				+ "Largo,Largo," + largo + ",,4\n"
+				+ "Grace,Hopper,grace@importacion.example.com,,3\n";
+		long antes = clienteDao.count();
+
+		ResultadoImportacion resultado = importacionService.importarCsv(entrada(csv));
+
+		assertEquals(2, resultado.getImportados());
+		assertEquals(1, resultado.getRechazados());
+		assertEquals(3, resultado.getErrores().get(0).getLinea());
+		assertTrue(resultado.getErrores().get(0).getErrores().get(0).startsWith("Error al realizar el insert"));
+		assertEquals(antes + 2, clienteDao.count());
+	}
+
+	private static ByteArrayInputStream entrada(String contenido) {
+		return new ByteArrayInputStream(contenido.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
@@ -0,0 +1,77 @@
+package com.bolsadeideas.springboot.backend.apirest.models.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bolsadeideas.springboot.backend.apirest.models.dao.SentenciasJdbc;
+import com.bolsadeideas.springboot.backend.apirest.models.entity.Factura;
+import com.bolsadeideas.springboot.backend.apirest.models.entity.ItemFactura;
+import com.bolsadeideas.springboot.backend.apirest.models.entity.Producto;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@Transactional
+public class ClienteServiceImplTests {
+
+	@Autowired
+	private IClienteService clienteService;
+
+	@Test
+	public void guardaElTotalConLosPreciosDeLaBaseDeDatos() {
+		Factura factura = new Factura();
+		factura.setDescripcion("Factura de prueba");
+		factura.setCliente(clienteService.findById(1L));
+		factura.getItems().add(item(4L, 3));
+		factura.getItems().add(item(6L, 1));
+
+		Factura guardada = clienteService.saveFactura(factura);
+
+		// El precio enviado por el cliente se ignora: 3 x 37990 + 69990
+		assertEquals(new BigDecimal("113970.00"), guardada.getItems().get(0).getImporte());
+		assertEquals(new BigDecimal("183960.00"), guardada.getTotal());
+	}
+
+	@Test
+	public void lasFacturasInicialesTienenElTotalCalculado() {
+		assertEquals(0, new BigDecimal("705950").compareTo(clienteService.findFacturaById(1L).getTotal()));
+	}
+
+	@Test
+	public void exportarLeeLaTablaEnBloquesAcotados() {
+		long clientes = clienteService.count();
+		List<Integer> bloques = new ArrayList<>();
+		long sentenciasAntes = SentenciasJdbc.getSentencias();
+
+		long exportados = clienteService.exportarTodos(3, bloque -> bloques.add(bloque.size()));
+
+		assertEquals(clientes, exportados);
+		assertEquals(clientes, bloques.stream().mapToLong(Integer::longValue).sum());
+		for (int tamano : bloques) {
+			assertTrue(tamano <= 3);
+		}
+		// Una consulta por bloque y una más que comprueba que no quedan filas
+		assertEquals(clientes / 3 + 1, SentenciasJdbc.getSentencias() - sentenciasAntes);
+	}
+
+	private static ItemFactura item(Long productoId, int cantidad) {
+		Producto producto = new Producto();
+		producto.setId(productoId);
+		producto.setPrecio(1.0);
+		ItemFactura item = new ItemFactura();
+		item.setProducto(producto);
+		item.setCantidad(cantidad);
+		return item;
+	}
+
+}
@@ -0,0 +1,76 @@
+package com.bolsadeideas.springboot.backend.apirest.models.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bolsadeideas.springboot.backend.apirest.models.entity.Region;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class DatosReferenciaTests {
+
+	@Autowired
+	private DatosReferencia datosReferencia;
+
+	@Autowired
+	private IClienteService clienteService;
+
+	@Autowired
+	private EntityManager em;
+
+	@Autowired
+	private EntityManagerFactory emf;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	public void lasRegionesSeSirvenSinConsultas() {
+		Statistics estadisticas = emf.unwrap(SessionFactory.class).getStatistics();
+		estadisticas.clear();
+
+		assertTrue(clienteService.findAllRegiones().size() >= 8);
+		assertEquals("Europa", datosReferencia.getRegiones().get(4L).getNombre());
+		assertTrue(datosReferencia.getRoles().getTodos().stream().anyMatch(r -> r.getNombre().equals("ROLE_ADMIN")));
+
+		assertEquals(0, estadisticas.getPrepareStatementCount());
+	}
+
+	@Test
+	public void seRecarganAlConfirmarUnCambio() {
+		String etag = datosReferencia.getRegiones().getEtag();
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+		Long id = tx.execute(status -> {
+			Region region = new Region();
+			region.setNombre("Zealandia");
+			em.persist(region);
+			return region.getId();
+		});
+		try {
+			assertEquals("Zealandia", datosReferencia.getRegiones().get(id).getNombre());
+			assertNotEquals(etag, datosReferencia.getRegiones().getEtag());
+		} finally {
+			tx.execute(status -> {
+				em.remove(em.find(Region.class, id));
+				return null;
+			});
+		}
+		assertEquals(etag, datosReferencia.getRegiones().getEtag());
+	}
+
+}
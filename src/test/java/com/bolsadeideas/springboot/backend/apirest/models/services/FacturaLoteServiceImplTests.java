@@ -0,0 +1,80 @@
+package com.bolsadeideas.springboot.backend.apirest.models.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bolsadeideas.springboot.backend.apirest.models.dao.IFacturaDao;
+import com.bolsadeideas.springboot.backend.apirest.models.dto.FacturaLote;
+import com.bolsadeideas.springboot.backend.apirest.models.dto.ItemFacturaLote;
+import com.bolsadeideas.springboot.backend.apirest.models.entity.Factura;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@Transactional
+public class FacturaLoteServiceImplTests {
+
+	@Autowired
+	private IFacturaLoteService facturaLoteService;
+
+	@Autowired
+	private IFacturaDao facturaDao;
+
+	@Test
+	public void creaFacturasYNoDuplicaLosReintentos() {
+		List<FacturaLote> lote = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			lote.add(factura("tpv-" + i, 1L, item(1L, 2), item(3L, 1)));
+		}
+		lote.add(factura("tpv-error", 1L, item(999999L, 1)));
+		lote.add(factura("tpv-0", 1L, item(1L, 1)));
+		long antes = facturaDao.count();
+
+		ResultadoLoteFacturas resultado = facturaLoteService.crearFacturas(lote);
+
+		assertEquals(300, resultado.getCreadas());
+		assertEquals(2, resultado.getRechazadas());
+		assertEquals(301, resultado.getErrores().get(0).getLinea());
+		assertTrue(resultado.getErrores().get(1).getErrores().get(0).contains("repetida"));
+		assertEquals(antes + 300, facturaDao.count());
+
+		Factura creada = facturaDao.findByIdConItems(resultado.getFacturas().get(0).getId());
+		assertEquals("tpv-0", creada.getClaveIdempotencia());
+		assertEquals(2, creada.getItems().size());
+		assertEquals(new BigDecimal("2019970.00"), creada.getTotal());
+
+		ResultadoLoteFacturas reintento = facturaLoteService.crearFacturas(lote.subList(0, 300));
+		assertEquals(0, reintento.getCreadas());
+		assertEquals(300, reintento.getDuplicadas());
+		assertEquals(creada.getId(), reintento.getFacturas().get(0).getId());
+		assertEquals(antes + 300, facturaDao.count());
+	}
+
+	private static FacturaLote factura(String clave, Long clienteId, ItemFacturaLote... items) {
+		FacturaLote factura = new FacturaLote();
+		factura.setClaveIdempotencia(clave);
+		factura.setClienteId(clienteId);
+		factura.setDescripcion("Venta " + clave);
+		factura.setItems(Arrays.asList(items));
+		return factura;
+	}
+
+	private static ItemFacturaLote item(Long productoId, int cantidad) {
+		ItemFacturaLote item = new ItemFacturaLote();
+		item.setProductoId(productoId);
+		item.setCantidad(cantidad);
+		return item;
+	}
+
+}
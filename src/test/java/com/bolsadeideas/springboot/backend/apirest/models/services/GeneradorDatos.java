@@ -0,0 +1,225 @@
+package com.bolsadeideas.springboot.backend.apirest.models.services;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Genera clientes, productos, facturas e items a escala para benchmarks y pruebas de
+ * carga. Se inserta con batches JDBC, un bloque por transacción, y siempre con la misma
+ * semilla para que dos ejecuciones partan de los mismos datos. Las facturas llevan id
+ * explícito (a continuación del máximo existente) para poder enlazar sus items sin
+ * volver a leerlas, y sus importes y totales se calculan igual que al guardarlas. Si la
+ * base de datos está vacía (sin import.sql) crea también regiones, roles y usuarios.
+ * <p>
+ * Está en las fuentes de test para que no llegue al jar de producción; los perfiles
+ * benchmark y carga añaden sus fuentes a las de test y también lo ven.
+ */
+@Component
+public class GeneradorDatos {
+
+	private static final Logger log = LoggerFactory.getLogger(GeneradorDatos.class);
+
+	private final static String SQL_INSERT_CLIENTE = "INSERT INTO clientes (nombre, apellido, email, create_at, region_id) VALUES (?, ?, ?, ?, ?)";
+
+	private final static String SQL_INSERT_PRODUCTO = "INSERT INTO productos (nombre, precio, create_at) VALUES (?, ?, ?)";
+
+	private final static String SQL_INSERT_FACTURA = "INSERT INTO facturas (id, descripcion, observacion, create_at, cliente_id, total) VALUES (?, ?, ?, ?, ?, ?)";
+
+	private final static String SQL_INSERT_ITEM = "INSERT INTO facturas_items (cantidad, producto_id, factura_id, importe) VALUES (?, ?, ?, ?)";
+
+	private static final String[] REGIONES = { "Sudamérica", "Centroamérica", "Norteamérica", "Europa", "Asia",
+			"Africa", "Oceanía", "Antártida" };
+
+	private static final String[] NOMBRES = { "Andrés", "Lucía", "Martín", "Valeria", "Santiago", "Camila", "Mateo",
+			"Isabella", "Sebastián", "Gabriela", "Nicolás", "Fernanda", "Joaquín", "Antonia", "Benjamín", "Catalina" };
+
+	private static final String[] APELLIDOS = { "González", "Muñoz", "Rojas", "Díaz", "Pérez", "Soto", "Contreras",
+			"Silva", "Martínez", "Sepúlveda", "Morales", "Rodríguez", "López", "Fuentes", "Hernández", "Torres" };
+
+	private static final String[] MARCAS = { "Sony", "Panasonic", "Apple", "Samsung", "Hewlett Packard", "Lenovo",
+			"Bianchi", "Mica", "Philips", "Bosch", "Canon", "Nikon", "Asus", "Acer", "Dell", "Xiaomi" };
+
+	private static final String[] TIPOS = { "Pantalla LCD", "Cámara digital", "Notebook", "Multifuncional", "Bicicleta",
+			"Cómoda", "Tablet", "Auriculares", "Impresora", "Teclado", "Monitor", "Altavoz", "Reloj", "Router" };
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private ProductoIndiceBusqueda productoIndice;
+
+	@Autowired
+	private DatosReferencia datosReferencia;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@Value("${datos.generador.clientes:100000}")
+	private int clientes;
+
+	@Value("${datos.generador.productos:1000}")
+	private int productos;
+
+	@Value("${datos.generador.facturas-por-cliente:2}")
+	private int facturasPorCliente;
+
+	@Value("${datos.generador.items-por-factura:5}")
+	private int itemsPorFactura;
+
+	@Value("${datos.generador.usuarios:10}")
+	private int usuarios;
+
+	@Value("${datos.generador.password:12345}")
+	private String password;
+
+	@Value("${datos.generador.tamano-lote:5000}")
+	private int tamanoLote;
+
+	@Value("${datos.generador.semilla:42}")
+	private long semilla;
+
+	public void generar() {
+		generar(clientes, productos, facturasPorCliente, itemsPorFactura);
+	}
+
+	/**
+	 * Añade los datos a los que ya existan.
+	 */
+	public void generar(int clientes, int productos, int facturasPorCliente, int itemsPorFactura) {
+		long inicio = System.currentTimeMillis();
+		Random random = new Random(semilla);
+
+		List<Integer> regiones = jdbcTemplate.queryForList("select id from regiones order by id", Integer.class);
+		if (regiones.isEmpty()) {
+			generarDatosBase();
+			regiones = jdbcTemplate.queryForList("select id from regiones order by id", Integer.class);
+		}
+
+		long ultimoExistente = maximoId("clientes");
+		Date hoy = new Date(System.currentTimeMillis());
+		long dia = 24L * 60 * 60 * 1000;
+		List<Object[]> filas = new ArrayList<>(tamanoLote);
+		for (int i = 0; i < clientes; i++) {
+			filas.add(new Object[] { NOMBRES[random.nextInt(NOMBRES.length)], APELLIDOS[random.nextInt(APELLIDOS.length)],
+					"cliente" + (ultimoExistente + i + 1) + "@generado.com", new Date(hoy.getTime() - random.nextInt(3650) * dia),
+					regiones.get(random.nextInt(regiones.size())) });
+			filas = volcarSiLleno(SQL_INSERT_CLIENTE, filas);
+		}
+		volcar(SQL_INSERT_CLIENTE, filas);
+
+		filas = new ArrayList<>(tamanoLote);
+		for (int i = 0; i < productos; i++) {
+			filas.add(new Object[] { MARCAS[random.nextInt(MARCAS.length)] + " " + TIPOS[random.nextInt(TIPOS.length)] + " "
+					+ (char) ('A' + random.nextInt(26)) + (100 + random.nextInt(900)), (double) (1000 + random.nextInt(2_000_000)), hoy });
+			filas = volcarSiLleno(SQL_INSERT_PRODUCTO, filas);
+		}
+		volcar(SQL_INSERT_PRODUCTO, filas);
+
+		// Se leen todos los productos (también los que ya había) con sus precios
+		List<Long> productoIds = new ArrayList<>();
+		List<Double> precios = new ArrayList<>();
+		jdbcTemplate.query("select id, precio from productos order by id", rs -> {
+			productoIds.add(rs.getLong(1));
+			precios.add(rs.getDouble(2));
+		});
+
+		// Los ids de los clientes generados pueden tener huecos si la secuencia ya avanzó
+		List<Long> clienteIds = jdbcTemplate.queryForList("select id from clientes where id > ? order by id", Long.class,
+				ultimoExistente);
+		long facturaId = maximoId("facturas");
+		filas = new ArrayList<>(tamanoLote);
+		List<Object[]> items = new ArrayList<>(tamanoLote);
+		for (Long cliente : clienteIds) {
+			for (int f = 0; f < facturasPorCliente; f++) {
+				facturaId++;
+				BigDecimal total = BigDecimal.ZERO;
+				for (int i = 0; i < itemsPorFactura; i++) {
+					int producto = random.nextInt(productoIds.size());
+					int cantidad = 1 + random.nextInt(5);
+					BigDecimal importe = BigDecimal.valueOf(precios.get(producto)).multiply(BigDecimal.valueOf(cantidad))
+							.setScale(2, RoundingMode.HALF_UP);
+					total = total.add(importe);
+					items.add(new Object[] { cantidad, productoIds.get(producto), facturaId, importe });
+				}
+				filas.add(new Object[] { facturaId, "Factura " + facturaId, null,
+						new Date(hoy.getTime() - random.nextInt(365) * dia), cliente, total });
+				// Las facturas se vuelcan antes que sus items por la clave foránea
+				if (items.size() >= tamanoLote) {
+					volcar(SQL_INSERT_FACTURA, filas);
+					volcar(SQL_INSERT_ITEM, items);
+					filas = new ArrayList<>(tamanoLote);
+					items = new ArrayList<>(tamanoLote);
+				}
+			}
+		}
+		volcar(SQL_INSERT_FACTURA, filas);
+		volcar(SQL_INSERT_ITEM, items);
+
+		productoIndice.construir();
+
+		log.info("Datos generados en " + (System.currentTimeMillis() - inicio) + " ms: " + clientes + " clientes, "
+				+ productos + " productos, " + (long) clientes * facturasPorCliente + " facturas y "
+				+ (long) clientes * facturasPorCliente * itemsPorFactura + " items");
+	}
+
+	// Regiones, los roles ROLE_USER y ROLE_ADMIN, el usuario admin con los dos y usuarioN con
+	// ROLE_USER, todos con la misma contraseña (se codifica una sola vez)
+	private void generarDatosBase() {
+		transactionTemplate.execute(status -> {
+			for (String region : REGIONES) {
+				jdbcTemplate.update("INSERT INTO regiones (nombre) VALUES (?)", region);
+			}
+			jdbcTemplate.update("INSERT INTO roles (nombre) VALUES ('ROLE_USER')");
+			jdbcTemplate.update("INSERT INTO roles (nombre) VALUES ('ROLE_ADMIN')");
+
+			String hash = passwordEncoder.encode(password);
+			List<Object[]> filas = new ArrayList<>();
+			filas.add(new Object[] { "admin", hash, "John", "Doe", "admin@generado.com" });
+			for (int i = 1; i <= usuarios; i++) {
+				filas.add(new Object[] { "usuario" + i, hash, NOMBRES[i % NOMBRES.length], APELLIDOS[i % APELLIDOS.length],
+						"usuario" + i + "@generado.com" });
+			}
+			jdbcTemplate.batchUpdate("INSERT INTO usuarios (username, password, enabled, nombre, apellido, email) VALUES (?, ?, true, ?, ?, ?)", filas);
+			jdbcTemplate.update("INSERT INTO usuarios_roles (usuario_id, role_id) SELECT u.id, r.id FROM usuarios u, roles r "
+					+ "WHERE r.nombre = 'ROLE_USER' OR (u.username = 'admin' AND r.nombre = 'ROLE_ADMIN')");
+			return null;
+		});
+		datosReferencia.recargarTodo();
+	}
+
+	private long maximoId(String tabla) {
+		Long maximo = jdbcTemplate.queryForObject("select max(id) from " + tabla, Long.class);
+		return maximo != null ? maximo : 0L;
+	}
+
+	private List<Object[]> volcarSiLleno(String sql, List<Object[]> filas) {
+		if (filas.size() < tamanoLote) {
+			return filas;
+		}
+		volcar(sql, filas);
+		return new ArrayList<>(tamanoLote);
+	}
+
+	private void volcar(String sql, List<Object[]> filas) {
+		if (!filas.isEmpty()) {
+			transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(sql, filas));
+		}
+	}
+
+}
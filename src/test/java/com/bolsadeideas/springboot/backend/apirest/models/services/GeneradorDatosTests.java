@@ -0,0 +1,79 @@
+package com.bolsadeideas.springboot.backend.apirest.models.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bolsadeideas.springboot.backend.apirest.models.entity.Factura;
+import com.bolsadeideas.springboot.backend.apirest.models.entity.ItemFactura;
+import com.bolsadeideas.springboot.backend.apirest.models.entity.Producto;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@Transactional
+public class GeneradorDatosTests {
+
+	@Autowired
+	private GeneradorDatos generadorDatos;
+
+	@Autowired
+	private IClienteService clienteService;
+
+	@Autowired
+	private ProductoIndiceBusqueda productoIndice;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	public void generaFacturasConTotalesYDejaSeguirInsertando() {
+		long clientes = contar("clientes");
+		long facturas = contar("facturas");
+		long items = contar("facturas_items");
+
+		generadorDatos.generar(50, 20, 2, 3);
+
+		assertEquals(clientes + 50, contar("clientes"));
+		assertEquals(facturas + 100, contar("facturas"));
+		assertEquals(items + 300, contar("facturas_items"));
+		assertEquals(Long.valueOf(0), jdbcTemplate.queryForObject("select count(*) from facturas f where f.total <> "
+				+ "(select sum(i.importe) from facturas_items i where i.factura_id = f.id)", Long.class));
+
+		// Los ids explícitos de las facturas no chocan con los que genera la base de datos después
+		Factura factura = new Factura();
+		factura.setDescripcion("Factura posterior");
+		factura.setCliente(clienteService.findById(1L));
+		Producto producto = new Producto();
+		producto.setId(1L);
+		ItemFactura item = new ItemFactura();
+		item.setCantidad(1);
+		item.setProducto(producto);
+		factura.setItems(Arrays.asList(item));
+		assertNotNull(clienteService.saveFactura(factura).getId());
+
+		// Los productos generados quedan en el índice de búsqueda
+		String nombre = jdbcTemplate.queryForObject("select nombre from productos order by id desc limit 1", String.class);
+		assertTrue(productoIndice.buscar(nombre, 20).stream().anyMatch(p -> p.getNombre().equals(nombre)));
+	}
+
+	@AfterTransaction
+	public void reconstruirIndice() {
+		productoIndice.construir();
+	}
+
+	private long contar(String tabla) {
+		return jdbcTemplate.queryForObject("select count(*) from " + tabla, Long.class);
+	}
+
+}
@@ -0,0 +1,90 @@
+package com.bolsadeideas.springboot.backend.apirest.models.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.imageio.ImageIO;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.util.FileSystemUtils;
+
+public class GeneradorMiniaturasTests {
+
+	private Path directorio;
+
+	private GeneradorMiniaturas generador;
+
+	@Before
+	public void setUp() throws Exception {
+		directorio = Files.createTempDirectory("miniaturas");
+		generador = new GeneradorMiniaturas(new int[] { 256, 64 }, 1, 10, 1_000_000);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		generador.destroy();
+		FileSystemUtils.deleteRecursively(directorio);
+	}
+
+	@Test
+	public void generaUnaMiniaturaPorTamano() throws Exception {
+		Path original = directorio.resolve("foto.png");
+		ImageIO.write(new BufferedImage(500, 300, BufferedImage.TYPE_INT_RGB), "png", original.toFile());
+
+		generador.generarAhora(original, tamano -> directorio.resolve("miniaturas/" + tamano + "/foto.png"));
+
+		BufferedImage pequena = ImageIO.read(directorio.resolve("miniaturas/64/foto.png").toFile());
+		BufferedImage mediana = ImageIO.read(directorio.resolve("miniaturas/256/foto.png").toFile());
+		assertEquals(64, pequena.getWidth());
+		assertEquals(38, pequena.getHeight());
+		assertEquals(256, mediana.getWidth());
+		assertEquals(153, mediana.getHeight());
+	}
+
+	@Test
+	public void lasImagenesMuyGrandesSeLeenSubmuestreadas() throws Exception {
+		// Pocos KB en disco, 16 millones de píxeles al decodificarla
+		Path original = directorio.resolve("grande.png");
+		ImageIO.write(new BufferedImage(4000, 4000, BufferedImage.TYPE_BYTE_BINARY), "png", original.toFile());
+		assertTrue(Files.size(original) < 100_000);
+
+		BufferedImage leida = generador.leer(original);
+		assertEquals(1000, leida.getWidth());
+		assertEquals(1000, leida.getHeight());
+
+		generador.generarAhora(original, tamano -> directorio.resolve("miniaturas/" + tamano + "/grande.png"));
+		assertEquals(256, ImageIO.read(directorio.resolve("miniaturas/256/grande.png").toFile()).getWidth());
+	}
+
+	@Test
+	public void lasMiniaturasDeUnGifTransparenteConservanLaTransparencia() throws Exception {
+		// Paleta de dos colores en la que el primero es transparente
+		byte[] componentes = { 0, (byte) 255 };
+		IndexColorModel paleta = new IndexColorModel(1, 2, componentes, componentes, componentes, 0);
+		BufferedImage imagen = new BufferedImage(400, 200, BufferedImage.TYPE_BYTE_BINARY, paleta);
+		Path original = directorio.resolve("foto.gif");
+		ImageIO.write(imagen, "gif", original.toFile());
+
+		generador.generarAhora(original, tamano -> directorio.resolve("miniaturas/" + tamano + "/foto.gif"));
+
+		BufferedImage pequena = ImageIO.read(directorio.resolve("miniaturas/64/foto.gif").toFile());
+		assertEquals(64, pequena.getWidth());
+		assertTrue(pequena.getColorModel().hasAlpha());
+		assertEquals(0, pequena.getRGB(10, 10) >>> 24);
+	}
+
+	@Test
+	public void eligeLaMiniaturaQueCubreElTamanoPedido() {
+		assertEquals(64, generador.tamanoParaPeticion(40));
+		assertEquals(256, generador.tamanoParaPeticion(100));
+		assertEquals(0, generador.tamanoParaPeticion(1024));
+	}
+
+}
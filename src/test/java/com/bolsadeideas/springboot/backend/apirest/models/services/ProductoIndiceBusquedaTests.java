@@ -0,0 +1,68 @@
+package com.bolsadeideas.springboot.backend.apirest.models.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.bolsadeideas.springboot.backend.apirest.models.entity.Producto;
+
+public class ProductoIndiceBusquedaTests {
+
+	private ProductoIndiceBusqueda indice;
+
+	@Before
+	public void setUp() {
+		indice = new ProductoIndiceBusqueda();
+		indice.reconstruir(Arrays.asList(producto(1L, "Sony Cámara digital DSC-W320B"), producto(2L, "Sony Notebook Z110"),
+				producto(3L, "Mica Cómoda 5 Cajones"), producto(4L, "Cámara réflex Canon")));
+	}
+
+	@Test
+	public void buscaSinTenerEnCuentaAcentos() {
+		assertEquals(ids(4L, 1L), ids(indice.buscar("camara", 10)));
+		assertEquals(ids(3L), ids(indice.buscar("COMODA", 10)));
+	}
+
+	@Test
+	public void ordenaPorRelevanciaYAplicaElLimite() {
+		assertEquals(ids(2L, 1L), ids(indice.buscar("so", 10)));
+		assertEquals(1, indice.buscar("sony", 1).size());
+		assertTrue(indice.buscar("xyz", 10).isEmpty());
+	}
+
+	@Test
+	public void seActualizaAlModificarYEliminarProductos() {
+		indice.indexar(producto(2L, "Sony Tablet"));
+		assertTrue(indice.buscar("notebook", 10).isEmpty());
+		assertEquals(ids(2L), ids(indice.buscar("tablet", 10)));
+
+		indice.eliminar(3L);
+		assertTrue(indice.buscar("cajones", 10).isEmpty());
+	}
+
+	private static List<Long> ids(Long... ids) {
+		return Arrays.asList(ids);
+	}
+
+	private static List<Long> ids(List<Producto> productos) {
+		List<Long> ids = new ArrayList<>();
+		for (Producto producto : productos) {
+			ids.add(producto.getId());
+		}
+		return ids;
+	}
+
+	private static Producto producto(Long id, String nombre) {
+		Producto producto = new Producto();
+		producto.setId(id);
+		producto.setNombre(nombre);
+		return producto;
+	}
+
+}
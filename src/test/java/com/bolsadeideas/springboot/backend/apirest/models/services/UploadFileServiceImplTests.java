@@ -0,0 +1,202 @@
+package com.bolsadeideas.springboot.backend.apirest.models.services;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.Resource;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.bolsadeideas.springboot.backend.apirest.models.dao.IClienteDao;
+import com.bolsadeideas.springboot.backend.apirest.models.entity.Cliente;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class UploadFileServiceImplTests {
+
+	@Autowired
+	private UploadFileServiceImpl uploadService;
+
+	@Autowired
+	private IClienteDao clienteDao;
+
+	@Test
+	public void guardaUnaSolaCopiaDeCadaImagen() throws Exception {
+		byte[] contenido = ("logo " + System.nanoTime()).getBytes();
+
+		String primero = uploadService.copiar(new MockMultipartFile("archivo", "atoslogo.png", "image/png", contenido));
+		String segundo = uploadService.copiar(new MockMultipartFile("archivo", "otro nombre.PNG", "image/png", contenido));
+
+		assertEquals(primero, segundo);
+		assertTrue(primero.matches("[0-9a-f]{64}\\.png"));
+		Path ruta = uploadService.getPath(primero);
+		assertEquals(primero.substring(2, 4), ruta.getParent().getFileName().toString());
+		assertTrue(Files.exists(ruta));
+
+		assertTrue(uploadService.eliminar(primero));
+		assertFalse(Files.exists(ruta));
+	}
+
+	@Test
+	public void laSubidaApareceConSuNombreFinalSinDejarTemporales() throws Exception {
+		byte[] contenido = ("completa " + System.nanoTime()).getBytes();
+
+		String nombre = uploadService.copiar(new MockMultipartFile("archivo", "completa.png", "image/png", contenido));
+		try {
+			assertArrayEquals(contenido, Files.readAllBytes(uploadService.getPath(nombre)));
+			assertEquals(0, temporales());
+		} finally {
+			uploadService.eliminar(nombre);
+		}
+	}
+
+	@Test
+	public void unaEscrituraFallidaNoDejaArchivos() throws Exception {
+		Set<Path> antes = archivos();
+		byte[] contenido = new byte[200 * 1024];
+		Arrays.fill(contenido, (byte) 7);
+		// La conexión se corta después de haber escrito parte de la imagen en el temporal
+		MockMultipartFile cortada = new MockMultipartFile("archivo", "cortada.png", "image/png", contenido) {
+			@Override
+			public InputStream getInputStream() {
+				return new FilterInputStream(new ByteArrayInputStream(contenido)) {
+					private int leidos;
+
+					@Override
+					public int read(byte[] b, int off, int len) throws IOException {
+						if (leidos > 100 * 1024) {
+							throw new IOException("Conexión cortada");
+						}
+						int n = super.read(b, off, len);
+						leidos += n;
+						return n;
+					}
+				};
+			}
+		};
+
+		try {
+			uploadService.copiar(cortada);
+			fail("La subida cortada debería fallar");
+		} catch (IOException e) {
+			assertEquals("Conexión cortada", e.getMessage());
+		}
+
+		assertEquals(0, temporales());
+		Set<Path> nuevos = archivos();
+		nuevos.removeAll(antes);
+		assertTrue(nuevos.toString(), nuevos.isEmpty());
+	}
+
+	@Test
+	public void laFotoSustituidaSeBorraEnSegundoPlano() throws Exception {
+		byte[] contenido = ("anterior " + System.nanoTime()).getBytes();
+		String nombre = uploadService.copiar(new MockMultipartFile("archivo", "anterior.png", "image/png", contenido));
+		Path ruta = uploadService.getPath(nombre);
+
+		uploadService.eliminarDiferido(nombre);
+
+		// La llamada no espera al borrado, y la imagen recién subida se reserva un segundo en los tests
+		assertTrue(Files.exists(ruta));
+		long limite = System.currentTimeMillis() + 10000;
+		while (Files.exists(ruta) && System.currentTimeMillis() < limite) {
+			Thread.sleep(50);
+		}
+		assertFalse(Files.exists(ruta));
+	}
+
+	@Test
+	public void lasReservasSeQuitanAlCaducar() throws Exception {
+		byte[] contenido = ("reserva " + System.nanoTime()).getBytes();
+		String nombre = uploadService.copiar(new MockMultipartFile("archivo", "reserva.png", "image/png", contenido));
+		try {
+			assertTrue(uploadService.reservada(nombre));
+			// La reserva dura un segundo en los tests
+			long limite = System.currentTimeMillis() + 10000;
+			while (uploadService.reservada(nombre) && System.currentTimeMillis() < limite) {
+				Thread.sleep(50);
+			}
+			assertFalse(uploadService.reservada(nombre));
+		} finally {
+			uploadService.eliminar(nombre);
+		}
+	}
+
+	@Test
+	public void noEliminaImagenesQueUsaUnCliente() throws Exception {
+		byte[] contenido = ("foto " + System.nanoTime()).getBytes();
+		String nombre = uploadService.copiar(new MockMultipartFile("archivo", "foto.jpg", "image/jpeg", contenido));
+
+		Cliente cliente = clienteDao.findById(1L).get();
+		String fotoAnterior = cliente.getFoto();
+		cliente.setFoto(nombre);
+		clienteDao.save(cliente);
+		try {
+			assertFalse(uploadService.eliminar(nombre));
+			assertTrue(Files.exists(uploadService.getPath(nombre)));
+		} finally {
+			cliente.setFoto(fotoAnterior);
+			clienteDao.save(cliente);
+			uploadService.eliminar(nombre);
+		}
+	}
+
+	@Test
+	public void recuerdaLasImagenesInexistentesHastaQueSeSuben() throws Exception {
+		byte[] contenido = ("nueva " + System.nanoTime()).getBytes();
+		StringBuilder nombre = new StringBuilder();
+		for (byte b : MessageDigest.getInstance("SHA-256").digest(contenido)) {
+			nombre.append(String.format("%02x", b));
+		}
+		nombre.append(".png");
+		String esperado = nombre.toString();
+
+		Resource faltante = uploadService.cargar(esperado);
+		assertFalse(faltante.isFile());
+		assertEquals("no-usuario.png", faltante.getFilename());
+		assertSame(faltante, uploadService.cargar(esperado));
+
+		assertEquals(esperado, uploadService.copiar(new MockMultipartFile("archivo", "nueva.png", "image/png", contenido)));
+		try {
+			Resource subida = uploadService.cargar(esperado);
+			assertTrue(subida.isFile());
+			assertEquals(esperado, subida.getFilename());
+		} finally {
+			uploadService.eliminar(esperado);
+		}
+	}
+
+	// Los temporales se escriben en .tmp dentro del directorio de imágenes, que getPath resuelve como un nombre antiguo
+	private long temporales() throws IOException {
+		try (Stream<Path> temporales = Files.list(uploadService.getPath(".tmp"))) {
+			return temporales.count();
+		}
+	}
+
+	private Set<Path> archivos() throws IOException {
+		try (Stream<Path> archivos = Files.walk(uploadService.getPath(".tmp").getParent())) {
+			return archivos.filter(Files::isRegularFile).collect(Collectors.toSet());
+		}
+	}
+
+}
@@ -0,0 +1,144 @@
+package com.bolsadeideas.springboot.backend.apirest.models.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bolsadeideas.springboot.backend.apirest.models.dao.IUsuarioDao;
+import com.bolsadeideas.springboot.backend.apirest.models.dto.UsuarioDto;
+import com.bolsadeideas.springboot.backend.apirest.models.entity.Role;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class UsuarioServiceTests {
+
+	@Autowired
+	private UsuarioService usuarioService;
+
+	@Autowired
+	private UsuarioCache usuarioCache;
+
+	@Autowired
+	private IUsuarioDao usuarioDao;
+
+	@Autowired
+	private EntityManager em;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	public void guardaEnCacheUnaCopiaInmutableDelUsuario() {
+		usuarioCache.invalidar("admin");
+
+		UsuarioDto admin = usuarioService.findByUsername("admin");
+		assertEquals("John", admin.getNombre());
+		assertTrue(admin.isEnabled());
+		assertEquals(Arrays.asList("ROLE_ADMIN", "ROLE_USER"), admin.getRoles().stream().sorted().collect(Collectors.toList()));
+		assertSame(admin, usuarioService.findByUsername("admin"));
+
+		UserDetails detalles = usuarioService.loadUserByUsername("admin");
+		assertEquals(2, detalles.getAuthorities().size());
+		assertNull(usuarioService.findByUsername("nadie"));
+	}
+
+	@Test
+	public void seInvalidaAlConfirmarLaModificacionDeUnUsuario() {
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+		UsuarioDto andres = usuarioService.findByUsername("andres");
+
+		tx.execute(status -> {
+			usuarioDao.findByUsername("andres").setNombre("Andrés");
+			em.flush();
+			// El cambio aún no está confirmado: la caché sigue sirviendo el usuario anterior
+			assertSame(andres, usuarioCache.obtener("andres"));
+			return null;
+		});
+		try {
+			assertNull(usuarioCache.obtener("andres"));
+			assertEquals("Andrés", usuarioService.findByUsername("andres").getNombre());
+		} finally {
+			tx.execute(status -> {
+				usuarioDao.findByUsername("andres").setNombre("Andres");
+				return null;
+			});
+		}
+		assertEquals("Andres", usuarioService.findByUsername("andres").getNombre());
+	}
+
+	@Test
+	public void alCambiarElNombreDeUsuarioSeInvalidaTambienElAnterior() {
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+		assertNotNull(usuarioService.findByUsername("andres"));
+
+		tx.execute(status -> {
+			usuarioDao.findByUsername("andres").setUsername("andres2");
+			return null;
+		});
+		try {
+			assertNull(usuarioCache.obtener("andres"));
+			assertNull(usuarioService.findByUsername("andres"));
+			assertEquals("Andres", usuarioService.findByUsername("andres2").getNombre());
+		} finally {
+			tx.execute(status -> {
+				usuarioDao.findByUsername("andres2").setUsername("andres");
+				return null;
+			});
+		}
+		assertNull(usuarioCache.obtener("andres2"));
+		assertNotNull(usuarioService.findByUsername("andres"));
+	}
+
+	@Test
+	public void unCambioDeshechoNoInvalidaLaCache() {
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+		UsuarioDto andres = usuarioService.findByUsername("andres");
+
+		tx.execute(status -> {
+			usuarioDao.findByUsername("andres").setNombre("Otro");
+			em.flush();
+			status.setRollbackOnly();
+			return null;
+		});
+
+		assertSame(andres, usuarioCache.obtener("andres"));
+	}
+
+	@Test
+	public void seVaciaAlConfirmarLaModificacionDeUnRol() {
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+		assertNotNull(usuarioService.findByUsername("admin"));
+
+		Long id = tx.execute(status -> {
+			Role role = new Role();
+			role.setNombre("ROLE_AUDITOR");
+			em.persist(role);
+			return role.getId();
+		});
+		try {
+			assertEquals(0, usuarioCache.tamano());
+		} finally {
+			tx.execute(status -> {
+				em.remove(em.find(Role.class, id));
+				return null;
+			});
+		}
+	}
+
+}